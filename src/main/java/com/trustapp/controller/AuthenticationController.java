@@ -41,8 +41,9 @@ public class AuthenticationController {
     }
     
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginResponseDTO>> authenticate(@Valid @RequestBody LoginUserDTO loginUserDTO) {
-        LoginResponseDTO response = authenticationService.authenticate(loginUserDTO);
+    public ResponseEntity<ApiResponse<LoginResponseDTO>> authenticate(@Valid @RequestBody LoginUserDTO loginUserDTO,
+            HttpServletRequest httpRequest) {
+        LoginResponseDTO response = authenticationService.authenticate(loginUserDTO, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
     
@@ -70,7 +71,7 @@ public class AuthenticationController {
     
     @GetMapping("/current-user")
     public ResponseEntity<ApiResponse<UserDTO>> getCurrentUser() {
-        UserDTO user = authenticationService.getCurrentUser();
+        UserDTO user = authenticationService.getCurrentUserProfile();
         return ResponseEntity.ok(ApiResponse.success("User retrieved successfully", user));
     }
 }
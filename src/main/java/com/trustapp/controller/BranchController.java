@@ -35,9 +35,10 @@ public class BranchController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String sortDir) {
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false, defaultValue = "true") Boolean withTotal) {
         PageResponseDTO<BranchDTO> branches = branchService.getAllBranches(
-            includeInactive, city, state, search, page, size, sortBy, sortDir);
+            includeInactive, city, state, search, page, size, sortBy, sortDir, withTotal);
         return ResponseEntity.ok(ApiResponse.success(branches));
     }
     
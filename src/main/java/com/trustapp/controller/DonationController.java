@@ -6,13 +6,18 @@ import com.trustapp.dto.DonationUpdateDTO;
 import com.trustapp.dto.DonorDropdownDTO;
 import com.trustapp.dto.response.ApiResponse;
 import com.trustapp.dto.response.PageResponseDTO;
+import com.trustapp.service.DonationExportService;
 import com.trustapp.service.DonationService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,9 +26,11 @@ import java.util.List;
 public class DonationController {
     
     private final DonationService donationService;
+    private final DonationExportService donationExportService;
     
-    public DonationController(DonationService donationService) {
+    public DonationController(DonationService donationService, DonationExportService donationExportService) {
         this.donationService = donationService;
+        this.donationExportService = donationExportService;
     }
     
     @GetMapping
@@ -37,21 +44,53 @@ public class DonationController {
             @RequestParam(required = false) String donorName,
             @RequestParam(required = false) String panNumber,
             @RequestParam(required = false) String receiptNumber,
+            @RequestParam(required = false) String search,
             @RequestParam(required = false, defaultValue = "false") Boolean includeInactive,
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "20") Integer size,
             @RequestParam(required = false, defaultValue = "donationDate") String sortBy,
-            @RequestParam(required = false, defaultValue = "DESC") String sortDir) {
+            @RequestParam(required = false, defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "true") Boolean withTotal) {
         
         PageResponseDTO<DonationDTO> pageResponse = donationService.getAllDonations(
             branchId, purposeId, eventId, paymentModeId,
-            fromDate, toDate, donorName, panNumber, receiptNumber,
-            includeInactive, page, size, sortBy, sortDir
+            fromDate, toDate, donorName, panNumber, receiptNumber, search,
+            includeInactive, page, size, sortBy, sortDir, cursor, withTotal
         );
         
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
     }
     
+    // Streams the whole filtered result as a file instead of pages; same filters as the listing
+    @GetMapping("/export")
+    public void exportDonations(
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) Long purposeId,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) Long paymentModeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String donorName,
+            @RequestParam(required = false) String panNumber,
+            @RequestParam(required = false) String receiptNumber,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false, defaultValue = "false") Boolean includeInactive,
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        
+        DonationExportService.Format exportFormat = DonationExportService.Format.of(format);
+        response.setContentType(exportFormat.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("donations-" + LocalDate.now() + "." + exportFormat.extension())
+            .build()
+            .toString());
+        
+        donationExportService.export(exportFormat, branchId, purposeId, eventId, paymentModeId,
+            fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactive,
+            response.getOutputStream());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<DonationDTO>> getDonationById(@PathVariable Long id) {
         DonationDTO donation = donationService.getDonationById(id);
@@ -94,8 +133,10 @@ public class DonationController {
     }
 
     @GetMapping("/donor-names")
-    public ResponseEntity<ApiResponse<List<DonorDropdownDTO>>> getAllActiveDonorNames() {
-        List<DonorDropdownDTO> donors = donationService.getAllActiveDonorNames();
+    public ResponseEntity<ApiResponse<List<DonorDropdownDTO>>> getAllActiveDonorNames(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) Integer limit) {
+        List<DonorDropdownDTO> donors = donationService.getAllActiveDonorNames(prefix, limit);
         return ResponseEntity.ok(ApiResponse.success(donors));
     }
 }
@@ -0,0 +1,70 @@
+package com.trustapp.controller;
+
+import com.trustapp.dto.ReceiptBatchRequestDTO;
+import com.trustapp.dto.ReceiptDTO;
+import com.trustapp.dto.ReceiptJobDTO;
+import com.trustapp.dto.response.ApiResponse;
+import com.trustapp.service.ReceiptDownloadService;
+import com.trustapp.service.ReceiptGenerationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/donations")
+public class DonationReceiptController {
+    
+    private final ReceiptGenerationService receiptGenerationService;
+    private final ReceiptDownloadService receiptDownloadService;
+    
+    public DonationReceiptController(ReceiptGenerationService receiptGenerationService,
+                                     ReceiptDownloadService receiptDownloadService) {
+        this.receiptGenerationService = receiptGenerationService;
+        this.receiptDownloadService = receiptDownloadService;
+    }
+    
+    @PostMapping("/{id}/receipt")
+    public ResponseEntity<ApiResponse<ReceiptDTO>> generateReceipt(@PathVariable Long id) {
+        ReceiptDTO receipt = receiptGenerationService.generateReceipt(id);
+        // Relative to the context path this request came in on, not a hard-coded /api
+        receipt.setDownloadUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/donations/{id}/receipt/download")
+            .buildAndExpand(id)
+            .getPath());
+        return ResponseEntity.ok(ApiResponse.success("Receipt generated successfully", receipt));
+    }
+    
+    // Streams the stored PDF; supports If-None-Match, If-Range and a single Range (GET maps HEAD too)
+    @GetMapping("/{id}/receipt/download")
+    public void downloadReceipt(@PathVariable Long id,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        receiptDownloadService.download(id, request, response);
+    }
+    
+    // Bulk generation runs in the background; poll the returned job for progress
+    @PostMapping("/receipts/jobs")
+    public ResponseEntity<ApiResponse<ReceiptJobDTO>> submitReceiptJob(
+            @Valid @RequestBody ReceiptBatchRequestDTO request) {
+        ReceiptJobDTO job = receiptGenerationService.submitJob(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success("Receipt generation job queued", job));
+    }
+    
+    @GetMapping("/receipts/jobs")
+    public ResponseEntity<ApiResponse<List<ReceiptJobDTO>>> getReceiptJobs() {
+        return ResponseEntity.ok(ApiResponse.success(receiptGenerationService.getJobs()));
+    }
+    
+    @GetMapping("/receipts/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReceiptJobDTO>> getReceiptJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(ApiResponse.success(receiptGenerationService.getJob(jobId)));
+    }
+}
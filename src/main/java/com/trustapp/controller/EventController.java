@@ -2,6 +2,7 @@ package com.trustapp.controller;
 
 import com.trustapp.dto.EventCreateDTO;
 import com.trustapp.dto.EventDTO;
+import com.trustapp.dto.EventDashboardDTO;
 import com.trustapp.dto.EventDropdownDTO;
 import com.trustapp.dto.EventUpdateDTO;
 import com.trustapp.dto.response.ApiResponse;
@@ -32,6 +33,14 @@ public class EventController {
         return ResponseEntity.ok(ApiResponse.success(events));
     }
     
+    @GetMapping("/dashboard")
+    public ResponseEntity<ApiResponse<EventDashboardDTO>> getDashboard(
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) Integer year) {
+        EventDashboardDTO dashboard = eventService.getDashboard(branchId, year);
+        return ResponseEntity.ok(ApiResponse.success(dashboard));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<EventDTO>> getEventById(@PathVariable Long id) {
         EventDTO event = eventService.getEventById(id);
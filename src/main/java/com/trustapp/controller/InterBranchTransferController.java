@@ -34,10 +34,12 @@ public class InterBranchTransferController {
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "20") Integer size,
             @RequestParam(required = false, defaultValue = "transferDate") String sortBy,
-            @RequestParam(required = false, defaultValue = "DESC") String sortDir) {
+            @RequestParam(required = false, defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "true") Boolean withTotal) {
         
         PageResponseDTO<InterBranchTransferDTO> pageResponse = interBranchTransferService.getAllTransfers(
-            fromBranchId, toBranchId, status, fromDate, toDate, page, size, sortBy, sortDir
+            fromBranchId, toBranchId, status, fromDate, toDate, page, size, sortBy, sortDir, cursor, withTotal
         );
         
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
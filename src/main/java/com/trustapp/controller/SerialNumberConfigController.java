@@ -54,8 +54,9 @@ public class SerialNumberConfigController {
     
     @GetMapping("/next/{entity}")
     public ResponseEntity<ApiResponse<SerialNumberNextResponseDTO>> getNextSerialNumber(
-            @PathVariable String entity) {
-        SerialNumberNextResponseDTO response = serialNumberConfigService.getNextSerialNumber(entity);
+            @PathVariable String entity,
+            @RequestParam(required = false) Long branchId) {
+        SerialNumberNextResponseDTO response = serialNumberConfigService.getNextSerialNumber(entity, branchId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 }
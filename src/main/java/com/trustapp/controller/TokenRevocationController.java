@@ -0,0 +1,27 @@
+package com.trustapp.controller;
+
+import com.trustapp.dto.TokenRevocationRequestDTO;
+import com.trustapp.dto.TokenRevocationResultDTO;
+import com.trustapp.dto.response.ApiResponse;
+import com.trustapp.service.TokenRevocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/tokens")
+public class TokenRevocationController {
+    
+    private final TokenRevocationService tokenRevocationService;
+    
+    public TokenRevocationController(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+    
+    @PostMapping("/revoke")
+    public ResponseEntity<ApiResponse<TokenRevocationResultDTO>> revokeTokens(
+            @RequestBody TokenRevocationRequestDTO request) {
+        TokenRevocationResultDTO result = tokenRevocationService.revoke(request);
+        return ResponseEntity.ok(ApiResponse.success("Tokens revoked successfully", result));
+    }
+}
+
@@ -19,6 +19,9 @@ public class BranchStatisticsDTO {
     private UserStatistics users;
     private FinancialSummary financialSummary;
     private InterBranchTransferStatistics interBranchTransfers;
+    // True when some sections missed the statistics deadline; those sections are null and listed here
+    private Boolean partial;
+    private List<String> unavailableSections;
     
     @Data
     @NoArgsConstructor
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DonorDropdownDTO {
+    // Earliest active donation id of this donor name, not a donor id
     private Long id;
     private String name;
 }
@@ -0,0 +1,23 @@
+package com.trustapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptBatchRequestDTO {
+    
+    // Optional; all branches when absent
+    private Long branchId;
+    
+    @NotNull(message = "From date is required")
+    private LocalDate fromDate;
+    
+    @NotNull(message = "To date is required")
+    private LocalDate toDate;
+}
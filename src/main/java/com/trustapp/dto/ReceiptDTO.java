@@ -0,0 +1,18 @@
+package com.trustapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptDTO {
+    private Long donationId;
+    private String receiptNumber;
+    private String receiptFilePath;
+    private LocalDateTime receiptGeneratedAt;
+    private String downloadUrl;
+}
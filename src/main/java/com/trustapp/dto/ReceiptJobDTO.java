@@ -0,0 +1,32 @@
+package com.trustapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptJobDTO {
+    private String id;
+    private String status;
+    private Long branchId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    
+    // Donations without a receipt when the job started
+    private Long total;
+    private Long generated;
+    private Long failed;
+    
+    // Receipts per second since the job started
+    private Double throughput;
+    private String error;
+    private Long requestedBy;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
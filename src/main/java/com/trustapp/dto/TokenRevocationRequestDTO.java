@@ -0,0 +1,22 @@
+package com.trustapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationRequestDTO {
+    // Exactly one of userIds, branchId or issuedBefore must be set
+    private List<Long> userIds;
+    private Long branchId;
+    private LocalDateTime issuedBefore;
+    
+    // When false only access tokens are revoked and users can refresh into a new session
+    private Boolean includeRefreshTokens = true;
+}
+
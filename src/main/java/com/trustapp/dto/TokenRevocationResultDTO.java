@@ -0,0 +1,16 @@
+package com.trustapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationResultDTO {
+    private String scope;
+    private Integer usersAffected;
+    private Integer tokensRevoked;
+    private Integer batches;
+}
+
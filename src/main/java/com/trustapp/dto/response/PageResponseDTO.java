@@ -11,12 +11,15 @@ import java.util.List;
 @AllArgsConstructor
 public class PageResponseDTO<T> {
     private List<T> content;
-    private long totalElements;
-    private int totalPages;
+    // totalElements and totalPages are null in cursor mode and with withTotal=false; number is null in cursor mode
+    private Long totalElements;
+    private Integer totalPages;
     private int size;
-    private int number;
+    private Integer number;
     private boolean first;
     private boolean last;
     private int numberOfElements;
+    // Pass back as `cursor` to fetch the next page; null on the last page and in page/size mode
+    private String nextCursor;
 }
 
@@ -4,9 +4,11 @@ import com.trustapp.dto.response.ApiResponse;
 import com.trustapp.dto.response.FieldErrorDetail;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -106,6 +108,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(apiResponse);
     }
     
+    @ExceptionHandler(LockedException.class)
+    public ResponseEntity<ApiResponse<String>> handleLockedException(LockedException ex) {
+        ApiResponse<String> apiResponse = ApiResponse.error("Account is locked due to too many failed login attempts", "ACCOUNT_LOCKED");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<String>> handleTooManyRequestsException(TooManyRequestsException ex) {
+        ApiResponse<String> apiResponse = ApiResponse.error(ex.getMessage(), "TOO_MANY_REQUESTS");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, "60")
+            .body(apiResponse);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleValidationExceptions(MethodArgumentNotValidException ex) {
         List<FieldErrorDetail> fieldErrors = new ArrayList<>();
@@ -164,5 +180,13 @@ public class GlobalExceptionHandler {
         ApiResponse<String> apiResponse = ApiResponse.error(ex.getMessage(), "FORBIDDEN");
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(apiResponse);
     }
+    
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<String>> handleServiceBusyException(ServiceBusyException ex) {
+        ApiResponse<String> apiResponse = ApiResponse.error(ex.getMessage(), "SERVICE_BUSY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(apiResponse);
+    }
 }
 
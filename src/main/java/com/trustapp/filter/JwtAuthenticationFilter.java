@@ -1,7 +1,10 @@
 package com.trustapp.filter;
 
+import com.trustapp.model.User;
+import com.trustapp.model.VerifiedToken;
 import com.trustapp.repository.TokenRepository;
 import com.trustapp.service.JwtService;
+import com.trustapp.service.TokenStatusCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,8 +14,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -28,8 +29,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final HandlerExceptionResolver handlerExceptionResolver;
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
     private final TokenRepository tokenRepository;
+    private final TokenStatusCache tokenStatusCache;
 
     @Override
     protected void doFilterInternal(
@@ -46,22 +47,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Parse and verify the signature once; the result is reused for every check below
+            final VerifiedToken verifiedToken = jwtService.verify(jwt);
+            final String userEmail = verifiedToken.subject();
+            request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
             if (userEmail != null && authentication == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-
-                var isTokenValid = tokenRepository.findJwtToken(jwt)
-                        .map(t -> !t.getExpired() && !t.getRevoked())
-                        .orElse(false);
-
-                if (jwtService.isTokenValid(jwt, userDetails) && isTokenValid) {
+                // The tokens JOIN users row carries both the revocation status and every column
+                // the User principal needs, so no separate user lookup is required
+                User user = tokenStatusCache.findJwtToken(jwt)
+                        .filter(t -> !t.getExpired() && !t.getRevoked())
+                        .map(t -> t.getUser())
+                        .orElse(null);
+
+                if (user != null && user.isEnabled() && jwtService.isTokenValid(verifiedToken, user)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            user,
                             null,
-                            userDetails.getAuthorities());
+                            user.getAuthorities());
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -74,6 +79,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (exception instanceof ExpiredJwtException) {
                 String jwt = authHeader.substring(7);
                 tokenRepository.markTokenAsExpired(jwt);
+                tokenStatusCache.evict(jwt);
             }
 
             handlerExceptionResolver.resolveException(request, response, null, exception);
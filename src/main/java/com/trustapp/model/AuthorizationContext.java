@@ -0,0 +1,57 @@
+package com.trustapp.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Immutable snapshot of what a user may access: super-user flag, role ids and
+// accessible branch ids packed into a bitset, so branch checks are in-memory bit tests
+public final class AuthorizationContext {
+    
+    private final Long userId;
+    private final boolean superUser;
+    private final List<Long> roleIds;
+    private final BitSet branchIds;
+    
+    public AuthorizationContext(Long userId, boolean superUser, List<Long> roleIds, List<Long> branchIds) {
+        this.userId = userId;
+        this.superUser = superUser;
+        this.roleIds = List.copyOf(roleIds);
+        this.branchIds = new BitSet();
+        for (Long branchId : branchIds) {
+            this.branchIds.set(Math.toIntExact(branchId));
+        }
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public boolean isSuperUser() {
+        return superUser;
+    }
+    
+    public List<Long> getRoleIds() {
+        return roleIds;
+    }
+    
+    // Super users can access every branch
+    public boolean hasAccessToBranch(Long branchId) {
+        if (superUser) {
+            return true;
+        }
+        return branchId != null && branchId >= 0 && branchId <= Integer.MAX_VALUE
+            && branchIds.get(branchId.intValue());
+    }
+    
+    // Null for super users, matching the repositories' "no branch filter" convention
+    public List<Long> getAccessibleBranchIds() {
+        if (superUser) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(branchIds.cardinality());
+        branchIds.stream().forEach(id -> ids.add((long) id));
+        return ids;
+    }
+}
+
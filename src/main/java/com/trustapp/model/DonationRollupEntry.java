@@ -0,0 +1,29 @@
+package com.trustapp.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// One active donation's contribution to donation_daily_rollups: the rollup key plus its amount
+public record DonationRollupEntry(
+    Long branchId,
+    Long purposeId,
+    Long paymentModeId,
+    Long eventId,
+    LocalDate donationDate,
+    BigDecimal amount
+) {
+    
+    // Key columns in primary key order; donations without an event roll up under event_id 0
+    public List<Object> keyParams() {
+        return List.of(branchId, donationDate, purposeId, paymentModeId, eventId != null ? eventId : 0L);
+    }
+    
+    public boolean sameKey(DonationRollupEntry other) {
+        return keyParams().equals(other.keyParams());
+    }
+    
+    public boolean sameAs(DonationRollupEntry other) {
+        return sameKey(other) && amount.compareTo(other.amount) == 0;
+    }
+}
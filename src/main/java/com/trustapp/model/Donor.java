@@ -0,0 +1,18 @@
+package com.trustapp.model;
+
+import java.time.LocalDateTime;
+
+// Row of the donors directory; a donor with no active donation is hidden from the typeahead.
+// firstDonationId is the lowest id among the donor's active donations.
+public record Donor(
+    Long id,
+    String name,
+    int activeDonations,
+    Long firstDonationId,
+    LocalDateTime updatedAt
+) {
+
+    public boolean isActive() {
+        return activeDonations > 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.trustapp.model;
+
+import java.math.BigDecimal;
+
+// Events starting in one calendar month with their donation totals, one row of the event dashboard query
+public record EventMonthStats(
+    int month,
+    long eventCount,
+    long plannedCount,
+    long activeCount,
+    long completedCount,
+    long cancelledCount,
+    BigDecimal totalIncome,
+    long donationCount
+) {
+}
@@ -0,0 +1,9 @@
+package com.trustapp.model;
+
+// Where a donation's generated receipt is stored, relative to the receipt storage directory
+public record ReceiptFile(
+    Long donationId,
+    String receiptNumber,
+    String filePath
+) {
+}
@@ -0,0 +1,125 @@
+package com.trustapp.model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk receipt run, updated by the job thread and the render workers
+// and read by status requests; kept in memory only
+public class ReceiptJob {
+    
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id = UUID.randomUUID().toString();
+    private final Long branchId;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final Long requestedBy;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    private volatile Status status = Status.QUEUED;
+    private volatile long total;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    
+    public ReceiptJob(Long branchId, LocalDate fromDate, LocalDate toDate, Long requestedBy) {
+        this.branchId = branchId;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.requestedBy = requestedBy;
+    }
+    
+    public void start(long total) {
+        this.total = total;
+        this.startedAt = LocalDateTime.now();
+        this.status = Status.RUNNING;
+    }
+    
+    public void recordGenerated() {
+        generated.incrementAndGet();
+    }
+    
+    public void recordFailed() {
+        failed.incrementAndGet();
+    }
+    
+    public void complete() {
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+    
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+    
+    public Double throughput() {
+        LocalDateTime started = startedAt;
+        if (started == null) {
+            return null;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(started, end).toMillis());
+        return generated.get() * 1000.0 / millis;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public Long getBranchId() {
+        return branchId;
+    }
+    
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+    
+    public LocalDate getToDate() {
+        return toDate;
+    }
+    
+    public Long getRequestedBy() {
+        return requestedBy;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public long getGenerated() {
+        return generated.get();
+    }
+    
+    public long getFailed() {
+        return failed.get();
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,92 @@
+package com.trustapp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A receipt layout parsed once at startup. Every source line becomes a list of literal and {field}
+// segments, so rendering a receipt is only lookups and concatenation. Lines starting with "# " are
+// headings and empty lines are vertical space. A line whose fields are all blank is left out,
+// e.g. "PAN: {panNumber}" for a donor without PAN.
+public record ReceiptTemplate(List<Line> lines) {
+    
+    public enum Style {
+        HEADING, TEXT, BLANK
+    }
+    
+    public record Segment(String literal, String field) {
+    }
+    
+    public record Line(Style style, List<Segment> segments) {
+        
+        // Null when the line has fields and none of them has a value
+        public String render(Map<String, String> values) {
+            StringBuilder text = new StringBuilder();
+            boolean hasFields = false;
+            boolean hasValue = false;
+            for (Segment segment : segments) {
+                if (segment.field() == null) {
+                    text.append(segment.literal());
+                    continue;
+                }
+                hasFields = true;
+                String value = values.get(segment.field());
+                if (value != null && !value.isBlank()) {
+                    hasValue = true;
+                    text.append(value);
+                }
+            }
+            return hasFields && !hasValue ? null : text.toString();
+        }
+    }
+    
+    // Fails on unknown or unterminated placeholders, so a broken template stops startup
+    // instead of producing broken receipts
+    public static ReceiptTemplate compile(String source, Set<String> fields) {
+        List<Line> lines = new ArrayList<>();
+        for (String raw : source.split("\\R", -1)) {
+            String line = raw.stripTrailing();
+            if (line.isEmpty()) {
+                lines.add(new Line(Style.BLANK, List.of()));
+                continue;
+            }
+            
+            Style style = Style.TEXT;
+            if (line.startsWith("# ")) {
+                style = Style.HEADING;
+                line = line.substring(2);
+            }
+            
+            List<Segment> segments = new ArrayList<>();
+            int position = 0;
+            while (position < line.length()) {
+                int open = line.indexOf('{', position);
+                if (open < 0) {
+                    segments.add(new Segment(line.substring(position), null));
+                    break;
+                }
+                int close = line.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unterminated placeholder in receipt template: " + raw);
+                }
+                String field = line.substring(open + 1, close);
+                if (!fields.contains(field)) {
+                    throw new IllegalArgumentException("Unknown receipt template field: {" + field + "}");
+                }
+                if (open > position) {
+                    segments.add(new Segment(line.substring(position, open), null));
+                }
+                segments.add(new Segment(null, field));
+                position = close + 1;
+            }
+            lines.add(new Line(style, List.copyOf(segments)));
+        }
+        
+        // Trailing blank lines of the source file carry no layout
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).style() == Style.BLANK) {
+            lines.remove(lines.size() - 1);
+        }
+        return new ReceiptTemplate(List.copyOf(lines));
+    }
+}
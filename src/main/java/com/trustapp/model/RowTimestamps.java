@@ -0,0 +1,10 @@
+package com.trustapp.model;
+
+import java.time.LocalDateTime;
+
+// Database-generated created_at/updated_at of one row, read back by primary key after a write
+public record RowTimestamps(
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,8 @@
+package com.trustapp.model;
+
+public record SerialNumber(
+    String value,
+    int year,
+    int sequence
+) {
+}
@@ -0,0 +1,26 @@
+package com.trustapp.model;
+
+// Range of sequence numbers reserved for one (entity type, branch, period) scope in one short
+// transaction, together with the format settings that were current when it was reserved
+public record SerialNumberBlock(
+    String entityType,
+    String prefix,
+    String formatPattern,
+    int sequenceLength,
+    String branchCode,
+    int periodYear,
+    int firstSequence,
+    int lastSequence
+) {
+
+    // {YEAR} is the period year: the calendar year, or the financial year's start year when the pattern uses {FY}.
+    // {FY} renders as e.g. 2025-26.
+    public String format(int sequence) {
+        return formatPattern
+            .replace("{PREFIX}", prefix)
+            .replace("{BRANCH}", branchCode != null ? branchCode : "")
+            .replace("{FY}", periodYear + "-" + String.format("%02d", (periodYear + 1) % 100))
+            .replace("{YEAR}", String.valueOf(periodYear))
+            .replace("{SEQUENCE}", String.format("%0" + sequenceLength + "d", sequence));
+    }
+}
@@ -14,8 +14,13 @@ import java.time.LocalDateTime;
 public class Token {
     
     private Long id;
+    
+    // Raw JWT, only known to the code that issued or received it; not persisted
     private String token;
     
+    // SHA-256 of the raw JWT, the persisted lookup key
+    private byte[] tokenHash;
+    
     @Builder.Default
     private TokenType type = TokenType.BEARER;
     
@@ -0,0 +1,13 @@
+package com.trustapp.model;
+
+import java.time.LocalDateTime;
+
+// One keyset batch of a bulk revocation by issue time: how many tokens it looked at and revoked,
+// and the (issued_at, id) of the last one, where the next batch starts
+public record TokenRevocationBatch(
+    int scanned,
+    int revoked,
+    LocalDateTime lastIssuedAt,
+    Long lastId
+) {
+}
@@ -43,6 +43,11 @@ public class User implements UserDetails {
         return email; // Use email as username for authentication
     }
     
+    // The account's username column, since getUsername() is taken by UserDetails
+    public String getAccountUsername() {
+        return username;
+    }
+    
     @Override
     public boolean isAccountNonExpired() {
         return true;
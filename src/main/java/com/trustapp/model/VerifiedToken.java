@@ -0,0 +1,19 @@
+package com.trustapp.model;
+
+import java.time.Instant;
+
+// Result of parsing and verifying a JWT once; downstream code reads claims from here
+// instead of re-parsing the raw token
+public record VerifiedToken(
+    String token,
+    String subject,
+    Instant issuedAt,
+    Instant expiresAt
+) {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,69 +24,26 @@ public class BranchRepository {
         this.jdbcClient = jdbcClient;
     }
     
-    public List<BranchDTO> findAll(boolean includeInactive, String city, String state, String search,
-                                   List<Long> accessibleBranchIds, int page, int size, String sortBy, String sortDir) {
+    // Page rows and the total come back in one statement (COUNT(*) OVER()) when withTotal,
+    // otherwise one extra row is fetched to tell whether there is a next page
+    public PagedResult<BranchDTO> findAll(boolean includeInactive, String city, String state, String search,
+                                          List<Long> accessibleBranchIds, int page, int size, String sortBy, String sortDir,
+                                          boolean withTotal) {
         StringBuilder sql = new StringBuilder("""
             SELECT b.id, b.code, b.name, b.address, b.city, b.state, b.pincode, 
                    b.phone, b.email, b.contact_person AS contactPerson, b.is_active AS isActive, 
                    b.created_at AS createdAt, b.updated_at AS updatedAt,
                    cb.id AS createdBy_id, cb.username AS createdBy_username, cb.email AS createdBy_email,
-                   ub.id AS updatedBy_id, ub.username AS updatedBy_username, ub.email AS updatedBy_email
+                   ub.id AS updatedBy_id, ub.username AS updatedBy_username, ub.email AS updatedBy_email%s
             FROM branches b
             LEFT JOIN users cb ON b.created_by = cb.id
             LEFT JOIN users ub ON b.updated_by = ub.id
-            """);
-        
-        // Build WHERE clause
-        StringBuilder whereClause = new StringBuilder();
-        boolean hasWhere = false;
-        
-        // Active filter
-        if (!includeInactive) {
-            whereClause.append("b.is_active = TRUE");
-            hasWhere = true;
-        }
-        
-        // City filter
-        if (city != null && !city.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("b.city = ?");
-            hasWhere = true;
-        }
-        
-        // State filter
-        if (state != null && !state.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("b.state = ?");
-            hasWhere = true;
-        }
-        
-        // Search filter (name or code)
-        if (search != null && !search.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("(b.name LIKE ? OR b.code LIKE ?)");
-            hasWhere = true;
-        }
-        
-        // Branch access filter (if not null, filter by accessible branches)
-        if (accessibleBranchIds != null) {
-            if (hasWhere) whereClause.append(" AND ");
-            if (accessibleBranchIds.isEmpty()) {
-                // User has no branch access, return empty result
-                whereClause.append("1 = 0");
-            } else {
-                whereClause.append("b.id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) whereClause.append(", ");
-                    whereClause.append("?");
-                }
-                whereClause.append(")");
-            }
-            hasWhere = true;
-        }
+            """.formatted(withTotal ? ", COUNT(*) OVER() AS " + PagedResult.TOTAL_COLUMN : ""));
         
-        if (hasWhere) {
-            sql.append(" WHERE ").append(whereClause);
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(includeInactive, city, state, search, accessibleBranchIds, params);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
         
         // Build ORDER BY clause
@@ -93,101 +52,78 @@ public class BranchRepository {
         sql.append(" ORDER BY ").append(sortField).append(" ").append(sortDirection);
         
         // Add pagination
+        long offset = (long) page * size;
         sql.append(" LIMIT ? OFFSET ?");
+        params.add(withTotal ? size : size + 1);
+        params.add(offset);
         
-        // Build query with parameters
-        var query = jdbcClient.sql(sql.toString());
+        PagedResult<BranchDTO> result = PagedResult.read(jdbcClient.sql(sql.toString()).params(params),
+            (rs, rowNum) -> mapBranchDTO(rs), size, offset, withTotal);
         
-        // Set parameters in order
-        if (city != null && !city.trim().isEmpty()) {
-            query = query.param(city);
+        // Requested page lies past the end, so no row carried the total
+        if (withTotal && result.total() == null) {
+            result = result.withTotal(count(includeInactive, city, state, search, accessibleBranchIds));
         }
-        if (state != null && !state.trim().isEmpty()) {
-            query = query.param(state);
-        }
-        if (search != null && !search.trim().isEmpty()) {
-            String searchPattern = "%" + search + "%";
-            query = query.param(searchPattern).param(searchPattern);
-        }
-        if (accessibleBranchIds != null && !accessibleBranchIds.isEmpty()) {
-            for (Long branchId : accessibleBranchIds) {
-                query = query.param(branchId);
-            }
-        }
-        query = query.param(size).param(page * size);
-        
-        return query.query((rs, rowNum) -> mapBranchDTO(rs)).list();
+        return result;
     }
     
     public long count(boolean includeInactive, String city, String state, String search, List<Long> accessibleBranchIds) {
         StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM branches b");
         
-        // Build WHERE clause (same as findAll)
-        StringBuilder whereClause = new StringBuilder();
-        boolean hasWhere = false;
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(includeInactive, city, state, search, accessibleBranchIds, params);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        
+        return jdbcClient.sql(sql.toString())
+            .params(params)
+            .query(Long.class)
+            .single();
+    }
+    
+    // Filters shared by findAll and count; appends the bind values to params in placeholder order
+    private List<String> buildConditions(boolean includeInactive, String city, String state, String search,
+                                         List<Long> accessibleBranchIds, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
         
+        // Active filter
         if (!includeInactive) {
-            whereClause.append("b.is_active = TRUE");
-            hasWhere = true;
+            conditions.add("b.is_active = TRUE");
         }
         
+        // City filter
         if (city != null && !city.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("b.city = ?");
-            hasWhere = true;
+            conditions.add("b.city = ?");
+            params.add(city);
         }
         
+        // State filter
         if (state != null && !state.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("b.state = ?");
-            hasWhere = true;
+            conditions.add("b.state = ?");
+            params.add(state);
         }
         
+        // Search filter (name or code)
         if (search != null && !search.trim().isEmpty()) {
-            if (hasWhere) whereClause.append(" AND ");
-            whereClause.append("(b.name LIKE ? OR b.code LIKE ?)");
-            hasWhere = true;
+            String searchPattern = "%" + search + "%";
+            conditions.add("(b.name LIKE ? OR b.code LIKE ?)");
+            params.add(searchPattern);
+            params.add(searchPattern);
         }
         
+        // Branch access filter (if not null, filter by accessible branches)
         if (accessibleBranchIds != null) {
-            if (hasWhere) whereClause.append(" AND ");
             if (accessibleBranchIds.isEmpty()) {
-                whereClause.append("1 = 0");
+                // User has no branch access, return empty result
+                conditions.add("1 = 0");
             } else {
-                whereClause.append("b.id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) whereClause.append(", ");
-                    whereClause.append("?");
-                }
-                whereClause.append(")");
-            }
-            hasWhere = true;
-        }
-        
-        if (hasWhere) {
-            sql.append(" WHERE ").append(whereClause);
-        }
-        
-        var query = jdbcClient.sql(sql.toString());
-        
-        // Set parameters in same order
-        if (city != null && !city.trim().isEmpty()) {
-            query = query.param(city);
-        }
-        if (state != null && !state.trim().isEmpty()) {
-            query = query.param(state);
-        }
-        if (search != null && !search.trim().isEmpty()) {
-            String searchPattern = "%" + search + "%";
-            query = query.param(searchPattern).param(searchPattern);
-        }
-        if (accessibleBranchIds != null && !accessibleBranchIds.isEmpty()) {
-            for (Long branchId : accessibleBranchIds) {
-                query = query.param(branchId);
+                conditions.add("b.id IN (" + String.join(", ", Collections.nCopies(accessibleBranchIds.size(), "?")) + ")");
+                params.addAll(accessibleBranchIds);
             }
         }
         
-        return query.query(Long.class).single();
+        return conditions;
     }
     
     private String getSortField(String sortBy) {
@@ -489,120 +425,63 @@ public class BranchRepository {
             .update();
     }
     
-    public BranchStatisticsDTO getBranchStatistics(Long branchId, LocalDate fromDate, LocalDate toDate) {
-        BranchStatisticsDTO stats = new BranchStatisticsDTO();
-        
-        // Get branch basic info
-        BranchDTO branch = findById(branchId).orElse(null);
-        if (branch != null) {
-            BranchStatisticsDTO.BranchInfo branchInfo = new BranchStatisticsDTO.BranchInfo();
-            branchInfo.setId(branch.getId());
-            branchInfo.setCode(branch.getCode());
-            branchInfo.setName(branch.getName());
-            stats.setBranch(branchInfo);
-        }
-        
-        // Build date filter clause
-        String dateFilter = "";
-        if (fromDate != null && toDate != null) {
-            dateFilter = " AND donation_date BETWEEN ? AND ?";
-        } else if (fromDate != null) {
-            dateFilter = " AND donation_date >= ?";
-        } else if (toDate != null) {
-            dateFilter = " AND donation_date <= ?";
-        }
-        
-        // Get donation statistics
-        String donationsSql = """
+    // The statistics sections below are independent single statements, so BranchStatisticsService
+    // can run them concurrently, each on its own connection
+    public BranchStatisticsDTO.DonationStatistics findDonationStatistics(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        // Read from the daily rollups (active donations only), which hold one row per branch, day,
+        // purpose, payment mode and event instead of one per donation
+        String sql = """
             SELECT 
-                COUNT(*) AS totalCount,
-                COALESCE(SUM(amount), 0) AS totalAmount,
-                COALESCE(AVG(amount), 0) AS averageAmount,
-                COALESCE(MIN(amount), 0) AS minAmount,
-                COALESCE(MAX(amount), 0) AS maxAmount
-            FROM donations
-            WHERE branch_id = ? AND is_active = TRUE
-            """ + dateFilter;
+                COALESCE(SUM(donation_count), 0) AS totalCount,
+                COALESCE(SUM(total_amount), 0) AS totalAmount,
+                COALESCE(SUM(total_amount) / NULLIF(SUM(donation_count), 0), 0) AS averageAmount,
+                COALESCE(MIN(min_amount), 0) AS minAmount,
+                COALESCE(MAX(max_amount), 0) AS maxAmount
+            FROM donation_daily_rollups
+            WHERE branch_id = ?
+            """ + dateFilter("donation_date", fromDate, toDate);
         
-        var donationQuery = jdbcClient.sql(donationsSql).param(branchId);
-        if (fromDate != null && toDate != null) {
-            donationQuery = donationQuery.param(Date.valueOf(fromDate)).param(Date.valueOf(toDate));
-        } else if (fromDate != null) {
-            donationQuery = donationQuery.param(Date.valueOf(fromDate));
-        } else if (toDate != null) {
-            donationQuery = donationQuery.param(Date.valueOf(toDate));
-        }
-        
-        var donationStats = donationQuery.query((rs, rowNum) -> {
-            BranchStatisticsDTO.DonationStatistics dto = new BranchStatisticsDTO.DonationStatistics();
-            dto.setTotalCount(rs.getLong("totalCount"));
-            dto.setTotalAmount(rs.getBigDecimal("totalAmount"));
-            dto.setAverageAmount(rs.getBigDecimal("averageAmount"));
-            dto.setMinAmount(rs.getBigDecimal("minAmount"));
-            dto.setMaxAmount(rs.getBigDecimal("maxAmount"));
-            return dto;
-        }).single();
-        
-        // Get donations by payment mode
-        String paymentModeSql = """
+        return jdbcClient.sql(sql)
+            .params(statisticsParams(branchId, fromDate, toDate))
+            .query((rs, rowNum) -> {
+                BranchStatisticsDTO.DonationStatistics dto = new BranchStatisticsDTO.DonationStatistics();
+                dto.setTotalCount(rs.getLong("totalCount"));
+                dto.setTotalAmount(rs.getBigDecimal("totalAmount"));
+                dto.setAverageAmount(rs.getBigDecimal("averageAmount"));
+                dto.setMinAmount(rs.getBigDecimal("minAmount"));
+                dto.setMaxAmount(rs.getBigDecimal("maxAmount"));
+                return dto;
+            }).single();
+    }
+    
+    public List<BranchStatisticsDTO.PaymentModeStat> findPaymentModeStatistics(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        String sql = """
             SELECT 
                 pm.name AS paymentMode,
-                COUNT(*) AS count,
-                COALESCE(SUM(d.amount), 0) AS totalAmount
-            FROM donations d
-            INNER JOIN payment_modes pm ON d.payment_mode_id = pm.id
-            WHERE d.branch_id = ? AND d.is_active = TRUE
-            """ + dateFilter + """
+                SUM(r.donation_count) AS count,
+                COALESCE(SUM(r.total_amount), 0) AS totalAmount
+            FROM donation_daily_rollups r
+            INNER JOIN payment_modes pm ON r.payment_mode_id = pm.id
+            WHERE r.branch_id = ?
+            """ + dateFilter("r.donation_date", fromDate, toDate) + """
             GROUP BY pm.id, pm.name
             ORDER BY totalAmount DESC
             """;
         
-        var paymentModeQuery = jdbcClient.sql(paymentModeSql).param(branchId);
-        if (fromDate != null && toDate != null) {
-            paymentModeQuery = paymentModeQuery.param(Date.valueOf(fromDate)).param(Date.valueOf(toDate));
-        } else if (fromDate != null) {
-            paymentModeQuery = paymentModeQuery.param(Date.valueOf(fromDate));
-        } else if (toDate != null) {
-            paymentModeQuery = paymentModeQuery.param(Date.valueOf(toDate));
-        }
-        
-        List<BranchStatisticsDTO.PaymentModeStat> paymentModeStats = paymentModeQuery.query((rs, rowNum) -> {
-            BranchStatisticsDTO.PaymentModeStat stat = new BranchStatisticsDTO.PaymentModeStat();
-            stat.setPaymentMode(rs.getString("paymentMode"));
-            stat.setCount(rs.getLong("count"));
-            stat.setTotalAmount(rs.getBigDecimal("totalAmount"));
-            return stat;
-        }).list();
-        
-        donationStats.setByPaymentMode(paymentModeStats);
-        stats.setDonations(donationStats);
-        
-        // Get expense statistics (if table exists - commented for now)
-        BranchStatisticsDTO.ExpenseStatistics expenseStats = new BranchStatisticsDTO.ExpenseStatistics();
-        expenseStats.setTotalCount(0L);
-        expenseStats.setTotalAmount(BigDecimal.ZERO);
-        expenseStats.setAverageAmount(BigDecimal.ZERO);
-        stats.setExpenses(expenseStats);
-        
-        // Get voucher statistics (if table exists - commented for now)
-        BranchStatisticsDTO.VoucherStatistics voucherStats = new BranchStatisticsDTO.VoucherStatistics();
-        voucherStats.setTotalCount(0L);
-        voucherStats.setTotalAmount(BigDecimal.ZERO);
-        voucherStats.setAverageAmount(BigDecimal.ZERO);
-        stats.setVouchers(voucherStats);
-        
-        // Get event statistics
-        // For events, we filter by start_date if date range is provided
-        String eventDateFilter = "";
-        if (fromDate != null && toDate != null) {
-            eventDateFilter = " AND start_date BETWEEN ? AND ?";
-        } else if (fromDate != null) {
-            eventDateFilter = " AND start_date >= ?";
-        } else if (toDate != null) {
-            eventDateFilter = " AND start_date <= ?";
-        }
-        
-        String eventsSql = """
+        return jdbcClient.sql(sql)
+            .params(statisticsParams(branchId, fromDate, toDate))
+            .query((rs, rowNum) -> {
+                BranchStatisticsDTO.PaymentModeStat stat = new BranchStatisticsDTO.PaymentModeStat();
+                stat.setPaymentMode(rs.getString("paymentMode"));
+                stat.setCount(rs.getLong("count"));
+                stat.setTotalAmount(rs.getBigDecimal("totalAmount"));
+                return stat;
+            }).list();
+    }
+    
+    // For events, the date range applies to start_date
+    public BranchStatisticsDTO.EventStatistics findEventStatistics(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        String sql = """
             SELECT 
                 COUNT(*) AS totalCount,
                 SUM(CASE WHEN status = 'ACTIVE' THEN 1 ELSE 0 END) AS activeCount,
@@ -610,29 +489,23 @@ public class BranchRepository {
                 SUM(CASE WHEN status = 'PLANNED' THEN 1 ELSE 0 END) AS plannedCount
             FROM events
             WHERE branch_id = ? AND is_active = TRUE
-            """ + eventDateFilter;
-        
-        var eventQuery = jdbcClient.sql(eventsSql).param(branchId);
-        if (fromDate != null && toDate != null) {
-            eventQuery = eventQuery.param(Date.valueOf(fromDate)).param(Date.valueOf(toDate));
-        } else if (fromDate != null) {
-            eventQuery = eventQuery.param(Date.valueOf(fromDate));
-        } else if (toDate != null) {
-            eventQuery = eventQuery.param(Date.valueOf(toDate));
-        }
+            """ + dateFilter("start_date", fromDate, toDate);
         
-        var eventStats = eventQuery.query((rs, rowNum) -> {
-            BranchStatisticsDTO.EventStatistics dto = new BranchStatisticsDTO.EventStatistics();
-            dto.setTotalCount(rs.getLong("totalCount"));
-            dto.setActiveCount(rs.getLong("activeCount"));
-            dto.setCompletedCount(rs.getLong("completedCount"));
-            dto.setPlannedCount(rs.getLong("plannedCount"));
-            return dto;
-        }).single();
-        stats.setEvents(eventStats);
-        
-        // Get user statistics (from user_branch_access)
-        String usersSql = """
+        return jdbcClient.sql(sql)
+            .params(statisticsParams(branchId, fromDate, toDate))
+            .query((rs, rowNum) -> {
+                BranchStatisticsDTO.EventStatistics dto = new BranchStatisticsDTO.EventStatistics();
+                dto.setTotalCount(rs.getLong("totalCount"));
+                dto.setActiveCount(rs.getLong("activeCount"));
+                dto.setCompletedCount(rs.getLong("completedCount"));
+                dto.setPlannedCount(rs.getLong("plannedCount"));
+                return dto;
+            }).single();
+    }
+    
+    // Users with access to the branch (from user_branch_access); not date-filtered
+    public BranchStatisticsDTO.UserStatistics findUserStatistics(Long branchId) {
+        String sql = """
             SELECT 
                 COUNT(DISTINCT uba.user_id) AS totalCount,
                 SUM(CASE WHEN u.is_active = TRUE THEN 1 ELSE 0 END) AS activeCount,
@@ -642,7 +515,7 @@ public class BranchRepository {
             WHERE uba.branch_id = ?
             """;
         
-        var userStats = jdbcClient.sql(usersSql)
+        return jdbcClient.sql(sql)
             .param(branchId)
             .query((rs, rowNum) -> {
                 BranchStatisticsDTO.UserStatistics dto = new BranchStatisticsDTO.UserStatistics();
@@ -651,77 +524,57 @@ public class BranchRepository {
                 dto.setInactiveCount(rs.getLong("inactiveCount"));
                 return dto;
             }).single();
-        stats.setUsers(userStats);
-        
-        // Calculate financial summary
-        BigDecimal totalIncome = donationStats.getTotalAmount();
-        BigDecimal totalExpenses = expenseStats.getTotalAmount();
-        BigDecimal netAmount = totalIncome.subtract(totalExpenses);
-        BigDecimal profitMargin = totalIncome.compareTo(BigDecimal.ZERO) > 0 
-            ? netAmount.divide(totalIncome, 4, java.math.RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
-            : BigDecimal.ZERO;
-        
-        BranchStatisticsDTO.FinancialSummary financialSummary = new BranchStatisticsDTO.FinancialSummary();
-        financialSummary.setTotalIncome(totalIncome);
-        financialSummary.setTotalExpenses(totalExpenses);
-        financialSummary.setNetAmount(netAmount);
-        financialSummary.setProfitMargin(profitMargin);
-        stats.setFinancialSummary(financialSummary);
-        
-        // Get inter-branch transfer statistics
-        String transferDateFilter = "";
-        if (fromDate != null && toDate != null) {
-            transferDateFilter = " AND transfer_date BETWEEN ? AND ?";
-        } else if (fromDate != null) {
-            transferDateFilter = " AND transfer_date >= ?";
-        } else if (toDate != null) {
-            transferDateFilter = " AND transfer_date <= ?";
-        }
-        
-        // Get incoming transfers (to this branch)
-        String incomingSql = """
+    }
+    
+    // Completed transfers into this branch
+    public BigDecimal sumIncomingTransfers(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        String sql = """
             SELECT COALESCE(SUM(amount), 0) AS totalIncoming
             FROM inter_branch_transfers
             WHERE to_branch_id = ? AND is_active = TRUE AND status = 'COMPLETED'
-            """ + transferDateFilter;
+            """ + dateFilter("transfer_date", fromDate, toDate);
         
-        var incomingQuery = jdbcClient.sql(incomingSql).param(branchId);
-        if (fromDate != null && toDate != null) {
-            incomingQuery = incomingQuery.param(Date.valueOf(fromDate)).param(Date.valueOf(toDate));
-        } else if (fromDate != null) {
-            incomingQuery = incomingQuery.param(Date.valueOf(fromDate));
-        } else if (toDate != null) {
-            incomingQuery = incomingQuery.param(Date.valueOf(toDate));
-        }
-        
-        BigDecimal totalIncoming = incomingQuery.query(BigDecimal.class).single();
-        
-        // Get outgoing transfers (from this branch)
-        String outgoingSql = """
+        return jdbcClient.sql(sql)
+            .params(statisticsParams(branchId, fromDate, toDate))
+            .query(BigDecimal.class)
+            .single();
+    }
+    
+    // Completed transfers out of this branch
+    public BigDecimal sumOutgoingTransfers(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        String sql = """
             SELECT COALESCE(SUM(amount), 0) AS totalOutgoing
             FROM inter_branch_transfers
             WHERE from_branch_id = ? AND is_active = TRUE AND status = 'COMPLETED'
-            """ + transferDateFilter;
+            """ + dateFilter("transfer_date", fromDate, toDate);
         
-        var outgoingQuery = jdbcClient.sql(outgoingSql).param(branchId);
+        return jdbcClient.sql(sql)
+            .params(statisticsParams(branchId, fromDate, toDate))
+            .query(BigDecimal.class)
+            .single();
+    }
+    
+    private static String dateFilter(String column, LocalDate fromDate, LocalDate toDate) {
         if (fromDate != null && toDate != null) {
-            outgoingQuery = outgoingQuery.param(Date.valueOf(fromDate)).param(Date.valueOf(toDate));
+            return " AND " + column + " BETWEEN ? AND ?";
         } else if (fromDate != null) {
-            outgoingQuery = outgoingQuery.param(Date.valueOf(fromDate));
+            return " AND " + column + " >= ?";
         } else if (toDate != null) {
-            outgoingQuery = outgoingQuery.param(Date.valueOf(toDate));
+            return " AND " + column + " <= ?";
         }
-        
-        BigDecimal totalOutgoing = outgoingQuery.query(BigDecimal.class).single();
-        BigDecimal netTransfer = totalIncoming.subtract(totalOutgoing);
-        
-        BranchStatisticsDTO.InterBranchTransferStatistics transferStats = new BranchStatisticsDTO.InterBranchTransferStatistics();
-        transferStats.setTotalIncoming(totalIncoming);
-        transferStats.setTotalOutgoing(totalOutgoing);
-        transferStats.setNetTransfer(netTransfer);
-        stats.setInterBranchTransfers(transferStats);
-        
-        return stats;
+        return "";
+    }
+    
+    private static List<Object> statisticsParams(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        List<Object> params = new ArrayList<>();
+        params.add(branchId);
+        if (fromDate != null) {
+            params.add(Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            params.add(Date.valueOf(toDate));
+        }
+        return params;
     }
     
     public List<BranchDropdownDTO> findAllForDropdown(List<Long> accessibleBranchIds) {
@@ -1,25 +1,70 @@
 package com.trustapp.repository;
 
 import com.trustapp.dto.DonationDTO;
-import com.trustapp.dto.DonorDropdownDTO;
+import com.trustapp.model.DonationRollupEntry;
+import com.trustapp.model.ReceiptFile;
+import com.trustapp.model.RowTimestamps;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class DonationRepository {
     
+    // Donation columns and lookup table columns, in the shape mapRowToDonationDTO reads
+    private static final String DETAIL_COLUMNS = """
+            d.id, d.receipt_number AS receiptNumber, d.donor_name AS donorName,
+                   d.donor_address AS donorAddress, d.pan_number AS panNumber,
+                   d.donor_phone AS donorPhone, d.donor_email AS donorEmail,
+                   d.amount, d.donation_date AS donationDate, d.notes,
+                   d.receipt_generated AS receiptGenerated, d.receipt_generated_at AS receiptGeneratedAt,
+                   d.receipt_file_path AS receiptFilePath, d.is_active AS isActive,
+                   d.created_at AS createdAt, d.updated_at AS updatedAt,
+                   pm.id AS paymentModeId, pm.code AS paymentModeCode, pm.name AS paymentModeName, pm.description AS paymentModeDescription,
+                   dp.id AS purposeId, dp.code AS purposeCode, dp.name AS purposeName, dp.description AS purposeDescription,
+                   dsc.id AS subCategoryId, dsc.code AS subCategoryCode, dsc.name AS subCategoryName, dsc.description AS subCategoryDescription,
+                   e.id AS eventId, e.code AS eventCode, e.name AS eventName, e.description AS eventDescription,
+                   e.start_date AS eventStartDate, e.end_date AS eventEndDate, e.status AS eventStatus,
+                   b.id AS branchId, b.code AS branchCode, b.name AS branchName,
+                   b.address AS branchAddress, b.city AS branchCity, b.state AS branchState""";
+    
+    // Joins from donations d to the lookup tables behind DETAIL_COLUMNS
+    private static final String DETAIL_JOINS = """
+            INNER JOIN payment_modes pm ON d.payment_mode_id = pm.id
+            INNER JOIN donation_purposes dp ON d.purpose_id = dp.id
+            LEFT JOIN donation_sub_categories dsc ON d.sub_category_id = dsc.id
+            LEFT JOIN events e ON d.event_id = e.id
+            INNER JOIN branches b ON d.branch_id = b.id
+            """;
+    
+    private static final String DETAIL_QUERY = "SELECT " + DETAIL_COLUMNS + "\nFROM donations d\n" + DETAIL_JOINS;
+    
     private final JdbcClient jdbcClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final DonationRollupRepository donationRollupRepository;
+    private final EventDonationStatsRepository eventDonationStatsRepository;
     
-    public DonationRepository(JdbcClient jdbcClient) {
+    public DonationRepository(JdbcClient jdbcClient, JdbcTemplate jdbcTemplate,
+                              DonationRollupRepository donationRollupRepository,
+                              EventDonationStatsRepository eventDonationStatsRepository) {
         this.jdbcClient = jdbcClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.donationRollupRepository = donationRollupRepository;
+        this.eventDonationStatsRepository = eventDonationStatsRepository;
     }
     
     public Long save(String receiptNumber, String donorName, String donorAddress, String panNumber,
@@ -55,33 +100,22 @@ public class DonationRepository {
             .param(userId)
             .update(keyHolder);
         
+        // Callers run in a transaction, so the rollups move together with the row
+        donationRollupRepository.add(new DonationRollupEntry(
+            branchId, purposeId, paymentModeId, eventId, donationDate, amount));
+        if (eventId != null) {
+            eventDonationStatsRepository.add(eventId, donorName, amount);
+        }
+        
         return keyHolder.getKey().longValue();
     }
     
     public Optional<DonationDTO> findById(Long id) {
-        String sql = """
-            SELECT d.id, d.receipt_number AS receiptNumber, d.donor_name AS donorName,
-                   d.donor_address AS donorAddress, d.pan_number AS panNumber,
-                   d.donor_phone AS donorPhone, d.donor_email AS donorEmail,
-                   d.amount, d.donation_date AS donationDate, d.notes,
-                   d.receipt_generated AS receiptGenerated, d.receipt_generated_at AS receiptGeneratedAt,
-                   d.receipt_file_path AS receiptFilePath, d.is_active AS isActive,
-                   d.created_at AS createdAt, d.updated_at AS updatedAt,
-                   pm.id AS paymentModeId, pm.code AS paymentModeCode, pm.name AS paymentModeName, pm.description AS paymentModeDescription,
-                   dp.id AS purposeId, dp.code AS purposeCode, dp.name AS purposeName, dp.description AS purposeDescription,
-                   dsc.id AS subCategoryId, dsc.code AS subCategoryCode, dsc.name AS subCategoryName, dsc.description AS subCategoryDescription,
-                   e.id AS eventId, e.code AS eventCode, e.name AS eventName, e.description AS eventDescription,
-                   e.start_date AS eventStartDate, e.end_date AS eventEndDate, e.status AS eventStatus,
-                   b.id AS branchId, b.code AS branchCode, b.name AS branchName,
-                   b.address AS branchAddress, b.city AS branchCity, b.state AS branchState,
+        String sql = "SELECT " + DETAIL_COLUMNS + ",\n" + """
                    u1.id AS createdById, u1.username AS createdByUsername, u1.email AS createdByEmail,
                    u2.id AS updatedById, u2.username AS updatedByUsername, u2.email AS updatedByEmail
             FROM donations d
-            INNER JOIN payment_modes pm ON d.payment_mode_id = pm.id
-            INNER JOIN donation_purposes dp ON d.purpose_id = dp.id
-            LEFT JOIN donation_sub_categories dsc ON d.sub_category_id = dsc.id
-            LEFT JOIN events e ON d.event_id = e.id
-            INNER JOIN branches b ON d.branch_id = b.id
+            """ + DETAIL_JOINS + """
             LEFT JOIN users u1 ON d.created_by = u1.id
             LEFT JOIN users u2 ON d.updated_by = u2.id
             WHERE d.id = ? AND d.is_active = TRUE
@@ -117,6 +151,21 @@ public class DonationRepository {
             .optional();
     }
     
+    // The timestamps come from the database clock, like deleted_at and every other table's, so a write
+    // reads them back by primary key in its own transaction instead of re-reading the whole join
+    public RowTimestamps findTimestamps(Long id) {
+        String sql = """
+            SELECT created_at AS createdAt, updated_at AS updatedAt
+            FROM donations
+            WHERE id = ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(id)
+            .query(RowTimestamps.class)
+            .single();
+    }
+    
     public boolean existsByReceiptNumber(String receiptNumber) {
         String sql = """
             SELECT COUNT(*) > 0
@@ -134,6 +183,8 @@ public class DonationRepository {
                       String donorPhone, String donorEmail, java.math.BigDecimal amount,
                       Long paymentModeId, Long purposeId, Long subCategoryId, Long eventId,
                       Long branchId, java.time.LocalDate donationDate, String notes, Long userId) {
+        Optional<LockedDonation> previous = lockActiveDonation(id);
+        
         String sql = """
             UPDATE donations
             SET donor_name = ?, donor_address = ?, pan_number = ?, donor_phone = ?,
@@ -143,7 +194,7 @@ public class DonationRepository {
             WHERE id = ?
             """;
         
-        return jdbcClient.sql(sql)
+        int updated = jdbcClient.sql(sql)
             .param(donorName)
             .param(donorAddress)
             .param(panNumber)
@@ -160,9 +211,35 @@ public class DonationRepository {
             .param(userId)
             .param(id)
             .update();
+        
+        if (updated > 0 && previous.isPresent()) {
+            LockedDonation before = previous.get();
+            DonationRollupEntry current = new DonationRollupEntry(
+                branchId, purposeId, paymentModeId, eventId, donationDate, amount);
+            if (!before.rollup().sameAs(current)) {
+                donationRollupRepository.remove(before.rollup());
+                donationRollupRepository.add(current);
+            }
+            
+            Long previousEventId = before.rollup().eventId();
+            boolean eventStatsChanged = !Objects.equals(previousEventId, eventId)
+                || !before.donorName().equals(donorName)
+                || before.rollup().amount().compareTo(amount) != 0;
+            if (eventStatsChanged) {
+                if (previousEventId != null) {
+                    eventDonationStatsRepository.remove(previousEventId, before.donorName(), before.rollup().amount());
+                }
+                if (eventId != null) {
+                    eventDonationStatsRepository.add(eventId, donorName, amount);
+                }
+            }
+        }
+        return updated;
     }
     
     public int delete(Long id, Long userId) {
+        Optional<LockedDonation> previous = lockActiveDonation(id);
+        
         // Soft delete: Set is_active = false, deleted_at = CURRENT_TIMESTAMP, deleted_by = userId
         String sql = """
             UPDATE donations
@@ -171,132 +248,261 @@ public class DonationRepository {
             WHERE id = ?
             """;
         
-        return jdbcClient.sql(sql)
+        int deleted = jdbcClient.sql(sql)
             .param(userId)
             .param(userId)
             .param(id)
             .update();
+        
+        if (deleted > 0 && previous.isPresent()) {
+            LockedDonation before = previous.get();
+            donationRollupRepository.remove(before.rollup());
+            if (before.rollup().eventId() != null) {
+                eventDonationStatsRepository.remove(before.rollup().eventId(), before.donorName(), before.rollup().amount());
+            }
+        }
+        return deleted;
     }
     
-    public List<DonationDTO> findAll(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
-                                     LocalDate fromDate, LocalDate toDate, String donorName,
-                                     String panNumber, String receiptNumber, boolean includeInactive,
-                                     int page, int size, String sortBy, String sortDir) {
-        StringBuilder sql = new StringBuilder("""
-            SELECT d.id, d.receipt_number AS receiptNumber, d.donor_name AS donorName,
-                   d.donor_address AS donorAddress, d.pan_number AS panNumber,
-                   d.donor_phone AS donorPhone, d.donor_email AS donorEmail,
-                   d.amount, d.donation_date AS donationDate, d.notes,
-                   d.receipt_generated AS receiptGenerated, d.receipt_generated_at AS receiptGeneratedAt,
-                   d.receipt_file_path AS receiptFilePath, d.is_active AS isActive,
-                   d.created_at AS createdAt, d.updated_at AS updatedAt,
-                   pm.id AS paymentModeId, pm.code AS paymentModeCode, pm.name AS paymentModeName, pm.description AS paymentModeDescription,
-                   dp.id AS purposeId, dp.code AS purposeCode, dp.name AS purposeName, dp.description AS purposeDescription,
-                   dsc.id AS subCategoryId, dsc.code AS subCategoryCode, dsc.name AS subCategoryName, dsc.description AS subCategoryDescription,
-                   e.id AS eventId, e.code AS eventCode, e.name AS eventName, e.description AS eventDescription,
-                   e.start_date AS eventStartDate, e.end_date AS eventEndDate, e.status AS eventStatus,
-                   b.id AS branchId, b.code AS branchCode, b.name AS branchName,
-                   b.address AS branchAddress, b.city AS branchCity, b.state AS branchState
-            FROM donations d
-            INNER JOIN payment_modes pm ON d.payment_mode_id = pm.id
-            INNER JOIN donation_purposes dp ON d.purpose_id = dp.id
-            LEFT JOIN donation_sub_categories dsc ON d.sub_category_id = dsc.id
-            LEFT JOIN events e ON d.event_id = e.id
-            INNER JOIN branches b ON d.branch_id = b.id
-            """);
+    // Columns the rollups are keyed on, as they were before an update or delete
+    private record LockedDonation(DonationRollupEntry rollup, String donorName) {
+    }
+    
+    // The row lock keeps the rollup columns from changing between this read and the write that
+    // follows; inactive rows are not part of any rollup
+    private Optional<LockedDonation> lockActiveDonation(Long id) {
+        String sql = """
+            SELECT branch_id, purpose_id, payment_mode_id, event_id, donation_date, amount, donor_name
+            FROM donations
+            WHERE id = ? AND is_active = TRUE
+            FOR UPDATE
+            """;
         
-        List<String> conditions = new ArrayList<>();
+        return jdbcClient.sql(sql)
+            .param(id)
+            .query((rs, rowNum) -> new LockedDonation(
+                new DonationRollupEntry(
+                    rs.getLong("branch_id"),
+                    rs.getLong("purpose_id"),
+                    rs.getLong("payment_mode_id"),
+                    rs.getObject("event_id", Long.class),
+                    rs.getDate("donation_date").toLocalDate(),
+                    rs.getBigDecimal("amount")
+                ),
+                rs.getString("donor_name")
+            ))
+            .optional();
+    }
+    
+    // Page mode (after == null) and keyset mode share one statement. The filtered, sorted and limited
+    // id list is computed over donations alone, with COUNT(*) OVER() when withTotal, and only the page
+    // rows are joined to the lookup tables. Keyset mode never counts.
+    // A full-text search orders by relevance instead of sortBy and is not combined with a cursor.
+    public PagedResult<DonationDTO> findAll(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
+                                            LocalDate fromDate, LocalDate toDate, String donorName,
+                                            String panNumber, String receiptNumber, String search, boolean includeInactive,
+                                            int page, int size, String sortBy, String sortDir, KeysetCursor after,
+                                            boolean withTotal) {
+        boolean counting = withTotal && after == null;
+        String searchQuery = after == null ? DonorSearchText.booleanQuery(search) : null;
+        
+        // The relevance placeholder in the SELECT list comes before the WHERE placeholders
         List<Object> params = new ArrayList<>();
+        if (searchQuery != null) {
+            params.add(searchQuery);
+        }
+        List<String> conditions = buildConditions(branchId, purposeId, eventId, paymentModeId,
+            fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactive, params);
+        
+        String sortKey = sortKey(sortBy);
+        String sortColumn = switch (sortKey) {
+            case "amount" -> "amount";
+            case "createdat" -> "created_at";
+            default -> "donation_date";
+        };
+        String direction = sortDirection(sortDir);
         
-        // Build WHERE conditions
-        if (branchId != null) {
-            conditions.add("d.branch_id = ?");
-            params.add(branchId);
+        // Keyset mode: seek past the cursor row instead of skipping OFFSET rows
+        if (after != null) {
+            conditions.add(after.condition("d." + sortColumn, "d.id"));
+            params.addAll(after.params(parseSortValue(sortKey, after.value())));
         }
         
-        if (purposeId != null) {
-            conditions.add("d.purpose_id = ?");
-            params.add(purposeId);
+        // id breaks ties so pages are stable
+        String orderBy = searchQuery != null
+            ? " ORDER BY page.relevance DESC, d.id DESC"
+            : " ORDER BY d." + sortColumn + " " + direction + ", d.id " + direction;
+        
+        StringBuilder sql = new StringBuilder("SELECT d.id")
+            .append(searchQuery != null ? ", MATCH(d.donor_search_text) AGAINST (? IN BOOLEAN MODE) AS relevance" : "")
+            .append(counting ? ", COUNT(*) OVER() AS " + PagedResult.TOTAL_COLUMN : "")
+            .append(" FROM donations d");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(searchQuery != null ? " ORDER BY relevance DESC, d.id DESC" : orderBy);
+        
+        // Without a count, one extra row tells whether there is a next page
+        long offset = after != null ? 0 : (long) page * size;
+        sql.append(" LIMIT ?");
+        params.add(counting ? size : size + 1);
+        if (after == null) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
         }
         
-        if (eventId != null) {
-            conditions.add("d.event_id = ?");
-            params.add(eventId);
+        String pageSql = "SELECT " + DETAIL_COLUMNS + (counting ? ", page." + PagedResult.TOTAL_COLUMN : "")
+            + "\nFROM (" + sql + ") page\nINNER JOIN donations d ON d.id = page.id\n" + DETAIL_JOINS + orderBy;
+        
+        PagedResult<DonationDTO> result = PagedResult.read(jdbcClient.sql(pageSql).params(params),
+            (rs, rowNum) -> mapRowToDonationDTO(rs), size, offset, counting);
+        
+        // Requested page lies past the end, so no row carried the total
+        if (counting && result.total() == null) {
+            result = result.withTotal(count(branchId, purposeId, eventId, paymentModeId,
+                fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactive));
         }
+        return result;
+    }
+    
+    // Streams every matching donation to the consumer in donation date order without materialising the
+    // result. Connector/J only streams a forward-only, read-only result set with fetch size
+    // Integer.MIN_VALUE; the connection is held until the last row, so the consumer must not query.
+    // If the consumer throws (e.g. the client went away), the statement is cancelled first, because
+    // closing a streaming result set would otherwise read all remaining rows off the wire.
+    public void streamAll(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
+                          LocalDate fromDate, LocalDate toDate, String donorName,
+                          String panNumber, String receiptNumber, String search, boolean includeInactive,
+                          Consumer<DonationDTO> consumer) {
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(branchId, purposeId, eventId, paymentModeId,
+            fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactive, params);
         
-        if (paymentModeId != null) {
-            conditions.add("d.payment_mode_id = ?");
-            params.add(paymentModeId);
+        StringBuilder sql = new StringBuilder(DETAIL_QUERY);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
+        sql.append(" ORDER BY d.donation_date, d.id");
+        
+        jdbcTemplate.execute(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            new ArgumentPreparedStatementSetter(params.toArray()).setValues(ps);
+            return ps;
+        }, (PreparedStatementCallback<Void>) ps -> {
+            try (ResultSet rs = ps.executeQuery()) {
+                try {
+                    while (rs.next()) {
+                        consumer.accept(mapRowToDonationDTO(rs));
+                    }
+                } catch (RuntimeException e) {
+                    ps.cancel();
+                    throw e;
+                }
+            }
+            return null;
+        });
+    }
+    
+    // Next batch of active donations without a receipt, in id order after afterId
+    public List<DonationDTO> findWithoutReceipt(Long branchId, LocalDate fromDate, LocalDate toDate,
+                                                long afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        String conditions = receiptCandidateConditions(branchId, fromDate, toDate, params);
+        params.add(afterId);
+        params.add(limit);
+        
+        return jdbcClient.sql(DETAIL_QUERY + " WHERE " + conditions + " AND d.id > ? ORDER BY d.id LIMIT ?")
+            .params(params)
+            .query((rs, rowNum) -> mapRowToDonationDTO(rs))
+            .list();
+    }
+    
+    public long countWithoutReceipt(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        List<Object> params = new ArrayList<>();
+        String conditions = receiptCandidateConditions(branchId, fromDate, toDate, params);
         
+        return jdbcClient.sql("SELECT COUNT(*) FROM donations d WHERE " + conditions)
+            .params(params)
+            .query(Long.class)
+            .single();
+    }
+    
+    private String receiptCandidateConditions(Long branchId, LocalDate fromDate, LocalDate toDate, List<Object> params) {
+        List<String> conditions = new ArrayList<>(List.of("d.is_active = TRUE", "d.receipt_generated = FALSE"));
+        if (branchId != null) {
+            conditions.add("d.branch_id = ?");
+            params.add(branchId);
+        }
         if (fromDate != null) {
             conditions.add("d.donation_date >= ?");
             params.add(fromDate);
         }
-        
         if (toDate != null) {
             conditions.add("d.donation_date <= ?");
             params.add(toDate);
         }
+        return String.join(" AND ", conditions);
+    }
+    
+    // Primary-key lookup for downloads; empty when the donation has no generated receipt
+    public Optional<ReceiptFile> findReceiptFile(Long id) {
+        String sql = """
+            SELECT id, receipt_number, receipt_file_path
+            FROM donations
+            WHERE id = ? AND is_active = TRUE AND receipt_generated = TRUE AND receipt_file_path IS NOT NULL
+            """;
         
-        if (donorName != null && !donorName.trim().isEmpty()) {
-            conditions.add("d.donor_name LIKE ?");
-            params.add("%" + donorName.trim() + "%");
-        }
-        
-        if (panNumber != null && !panNumber.trim().isEmpty()) {
-            conditions.add("d.pan_number = ?");
-            params.add(panNumber.trim().toUpperCase());
-        }
-        
-        if (receiptNumber != null && !receiptNumber.trim().isEmpty()) {
-            conditions.add("d.receipt_number = ?");
-            params.add(receiptNumber.trim());
-        }
+        return jdbcClient.sql(sql)
+            .param(id)
+            .query((rs, rowNum) -> new ReceiptFile(
+                rs.getLong("id"),
+                rs.getString("receipt_number"),
+                rs.getString("receipt_file_path")))
+            .optional();
+    }
+    
+    // Guarded on receipt_generated so a receipt is recorded once even if two runs render it
+    public int markReceiptGenerated(Long id, String filePath, LocalDateTime generatedAt) {
+        String sql = """
+            UPDATE donations
+            SET receipt_generated = TRUE, receipt_generated_at = ?, receipt_file_path = ?
+            WHERE id = ? AND is_active = TRUE AND receipt_generated = FALSE
+            """;
         
-        if (!includeInactive) {
-            conditions.add("d.is_active = TRUE");
-        }
+        return jdbcClient.sql(sql)
+            .param(generatedAt)
+            .param(filePath)
+            .param(id)
+            .update();
+    }
+    
+    public long count(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
+                      LocalDate fromDate, LocalDate toDate, String donorName,
+                      String panNumber, String receiptNumber, String search, boolean includeInactive) {
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(branchId, purposeId, eventId, paymentModeId,
+            fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactive, params);
         
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM donations d");
         if (!conditions.isEmpty()) {
-            sql.append("WHERE ").append(String.join(" AND ", conditions));
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
         }
         
-        // Add ORDER BY
-        String sortField = switch (sortBy != null ? sortBy.toLowerCase() : "donationdate") {
-            case "amount" -> "d.amount";
-            case "createdat" -> "d.created_at";
-            default -> "d.donation_date";
-        };
-        
-        String direction = "DESC".equalsIgnoreCase(sortDir) ? "DESC" : "ASC";
-        sql.append(" ORDER BY ").append(sortField).append(" ").append(direction);
-        
-        // Add pagination
-        sql.append(" LIMIT ? OFFSET ?");
-        params.add(size);
-        params.add(page * size);
-        
-        JdbcClient.StatementSpec query = jdbcClient.sql(sql.toString());
-        for (Object param : params) {
-            query = query.param(param);
-        }
-        
-        return query.query((rs, rowNum) -> mapRowToDonationDTO(rs)).list();
+        return jdbcClient.sql(sql.toString())
+            .params(params)
+            .query(Long.class)
+            .single();
     }
     
-    public long count(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
-                      LocalDate fromDate, LocalDate toDate, String donorName,
-                      String panNumber, String receiptNumber, boolean includeInactive) {
-        StringBuilder sql = new StringBuilder("""
-            SELECT COUNT(*)
-            FROM donations d
-            """);
-        
+    // Filters shared by findAll, count and streamAll; appends the bind values to params in placeholder order
+    private List<String> buildConditions(Long branchId, Long purposeId, Long eventId, Long paymentModeId,
+                                         LocalDate fromDate, LocalDate toDate, String donorName,
+                                         String panNumber, String receiptNumber, String search,
+                                         boolean includeInactive, List<Object> params) {
         List<String> conditions = new ArrayList<>();
-        List<Object> params = new ArrayList<>();
         
-        // Build WHERE conditions (same as findAll)
         if (branchId != null) {
             conditions.add("d.branch_id = ?");
             params.add(branchId);
@@ -327,9 +533,28 @@ public class DonationRepository {
             params.add(toDate);
         }
         
+        // Full-text match on the folded name; a single-letter input falls back to a prefix scan of idx_donor_name
         if (donorName != null && !donorName.trim().isEmpty()) {
-            conditions.add("d.donor_name LIKE ?");
-            params.add("%" + donorName.trim() + "%");
+            String nameQuery = DonorSearchText.booleanQuery(donorName);
+            if (nameQuery != null) {
+                conditions.add("MATCH(d.donor_name_folded) AGAINST (? IN BOOLEAN MODE)");
+                params.add(nameQuery);
+            } else {
+                conditions.add("d.donor_name LIKE ?");
+                params.add(donorName.trim() + "%");
+            }
+        }
+        
+        // Search across name, address and phone
+        if (search != null && !search.trim().isEmpty()) {
+            String searchQuery = DonorSearchText.booleanQuery(search);
+            if (searchQuery != null) {
+                conditions.add("MATCH(d.donor_search_text) AGAINST (? IN BOOLEAN MODE)");
+                params.add(searchQuery);
+            } else {
+                conditions.add("d.donor_name LIKE ?");
+                params.add(search.trim() + "%");
+            }
         }
         
         if (panNumber != null && !panNumber.trim().isEmpty()) {
@@ -346,35 +571,40 @@ public class DonationRepository {
             conditions.add("d.is_active = TRUE");
         }
         
-        if (!conditions.isEmpty()) {
-            sql.append("WHERE ").append(String.join(" AND ", conditions));
-        }
-        
-        JdbcClient.StatementSpec query = jdbcClient.sql(sql.toString());
-        for (Object param : params) {
-            query = query.param(param);
-        }
-        
-        return query.query(Long.class).single();
+        return conditions;
     }
-
-    public List<DonorDropdownDTO> findAllActiveDonorNames() {
-        String sql = """
-            SELECT MIN(d.id) AS id, d.donor_name AS name
-            FROM donations d
-            WHERE d.is_active = TRUE
-            GROUP BY d.donor_name
-            ORDER BY d.donor_name ASC
-            """;
-
-        return jdbcClient.sql(sql)
-                .query((rs, rowNum) -> new DonorDropdownDTO(
-                        rs.getLong("id"),
-                        rs.getString("name")
-                ))
-                .list();
+    
+    public KeysetCursor cursorAfter(DonationDTO last, String sortBy, String sortDir) {
+        String sortKey = sortKey(sortBy);
+        Object value = switch (sortKey) {
+            case "amount" -> last.getAmount();
+            case "createdat" -> last.getCreatedAt();
+            default -> last.getDonationDate();
+        };
+        return new KeysetCursor(sortKey, sortDirection(sortDir), String.valueOf(value), last.getId());
+    }
+    
+    public static String sortKey(String sortBy) {
+        String key = sortBy != null ? sortBy.toLowerCase() : "donationdate";
+        return key.equals("amount") || key.equals("createdat") ? key : "donationdate";
+    }
+    
+    public static String sortDirection(String sortDir) {
+        return "DESC".equalsIgnoreCase(sortDir) ? "DESC" : "ASC";
     }
     
+    private Object parseSortValue(String sortKey, String value) {
+        try {
+            return switch (sortKey) {
+                case "amount" -> new java.math.BigDecimal(value);
+                case "createdat" -> java.time.LocalDateTime.parse(value);
+                default -> LocalDate.parse(value);
+            };
+        } catch (RuntimeException e) {
+            throw new com.trustapp.exception.ValidationException("Invalid cursor");
+        }
+    }
+
     private DonationDTO mapRowToDonationDTO(ResultSet rs) throws SQLException {
         DonationDTO donation = new DonationDTO();
         donation.setId(rs.getLong("id"));
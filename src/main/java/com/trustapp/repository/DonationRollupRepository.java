@@ -0,0 +1,172 @@
+package com.trustapp.repository;
+
+import com.trustapp.model.DonationRollupEntry;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// donation_daily_rollups holds COUNT/SUM/MIN/MAX of active donations per
+// (branch, date, purpose, payment mode, event). add and remove run inside the donation write's
+// transaction; the rebuild and drift queries back DonationRollupService.
+@Repository
+public class DonationRollupRepository {
+    
+    private static final String KEY_CONDITION = """
+        branch_id = ? AND donation_date = ? AND purpose_id = ? AND payment_mode_id = ? AND event_id = ?
+        """;
+    
+    private static final String DONATION_KEY_CONDITION = """
+        d.branch_id = ? AND d.donation_date = ? AND d.purpose_id = ? AND d.payment_mode_id = ?
+        AND COALESCE(d.event_id, 0) = ? AND d.is_active = TRUE
+        """;
+    
+    private final JdbcClient jdbcClient;
+    
+    public DonationRollupRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+    
+    // A single upsert, so concurrent donations for the same new key cannot race on the primary key
+    public void add(DonationRollupEntry entry) {
+        String sql = """
+            INSERT INTO donation_daily_rollups
+            (branch_id, donation_date, purpose_id, payment_mode_id, event_id,
+             donation_count, total_amount, min_amount, max_amount)
+            VALUES (?, ?, ?, ?, ?, 1, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE donation_count = donation_count + 1,
+                total_amount = total_amount + ?,
+                min_amount = LEAST(min_amount, ?),
+                max_amount = GREATEST(max_amount, ?)
+            """;
+        
+        List<Object> params = new ArrayList<>(entry.keyParams());
+        BigDecimal amount = entry.amount();
+        params.addAll(List.of(amount, amount, amount, amount, amount, amount));
+        jdbcClient.sql(sql)
+            .params(params)
+            .update();
+    }
+    
+    // Count and total are decremented in place. MIN and MAX cannot be, so they are recomputed from the
+    // bucket's donations, and only when the removed amount was one of them. The donation write has
+    // already happened in this transaction, so that read no longer sees the removed row.
+    public void remove(DonationRollupEntry entry) {
+        List<Object> key = entry.keyParams();
+        
+        List<Object> decrementParams = new ArrayList<>();
+        decrementParams.add(entry.amount());
+        decrementParams.addAll(key);
+        int updated = jdbcClient.sql("""
+                UPDATE donation_daily_rollups
+                SET donation_count = donation_count - 1, total_amount = total_amount - ?
+                WHERE donation_count > 0 AND
+                """ + KEY_CONDITION)
+            .params(decrementParams)
+            .update();
+        if (updated == 0) {
+            // Bucket missing, the next verification run rebuilds the day
+            return;
+        }
+        
+        int deleted = jdbcClient.sql("DELETE FROM donation_daily_rollups WHERE donation_count = 0 AND " + KEY_CONDITION)
+            .params(key)
+            .update();
+        if (deleted > 0) {
+            return;
+        }
+        
+        List<Object> boundsParams = new ArrayList<>(key);
+        boundsParams.addAll(key);
+        boundsParams.addAll(key);
+        boundsParams.add(entry.amount());
+        boundsParams.add(entry.amount());
+        jdbcClient.sql("""
+                UPDATE donation_daily_rollups
+                SET min_amount = COALESCE((SELECT MIN(d.amount) FROM donations d WHERE
+                """ + DONATION_KEY_CONDITION + """
+                    ), min_amount),
+                    max_amount = COALESCE((SELECT MAX(d.amount) FROM donations d WHERE
+                """ + DONATION_KEY_CONDITION + """
+                    ), max_amount)
+                WHERE
+                """ + KEY_CONDITION + """
+                AND (min_amount = ? OR max_amount = ?)
+                """)
+            .params(boundsParams)
+            .update();
+    }
+    
+    // Replaces the rollups of a date range with a fresh aggregate. Run inside a transaction: the
+    // INSERT ... SELECT takes shared locks on the donations it reads, so a concurrent donation write
+    // for those days waits for the rebuild instead of being lost.
+    public int rebuild(LocalDate fromDate, LocalDate toDate) {
+        jdbcClient.sql("DELETE FROM donation_daily_rollups WHERE donation_date BETWEEN ? AND ?")
+            .param(Date.valueOf(fromDate))
+            .param(Date.valueOf(toDate))
+            .update();
+        
+        String sql = """
+            INSERT INTO donation_daily_rollups
+            (branch_id, donation_date, purpose_id, payment_mode_id, event_id,
+             donation_count, total_amount, min_amount, max_amount)
+            SELECT branch_id, donation_date, purpose_id, payment_mode_id, COALESCE(event_id, 0),
+                   COUNT(*), SUM(amount), MIN(amount), MAX(amount)
+            FROM donations
+            WHERE is_active = TRUE AND donation_date BETWEEN ? AND ?
+            GROUP BY branch_id, donation_date, purpose_id, payment_mode_id, COALESCE(event_id, 0)
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(Date.valueOf(fromDate))
+            .param(Date.valueOf(toDate))
+            .update();
+    }
+    
+    // Days whose rollup rows differ from the donations they summarise, in either direction.
+    // Both sides are read in one statement, so they come from the same snapshot.
+    public List<LocalDate> findDriftedDays(LocalDate fromDate, LocalDate toDate) {
+        String sql = """
+            SELECT DISTINCT donation_date
+            FROM (
+                SELECT donation_date
+                FROM (
+                    SELECT branch_id, donation_date, purpose_id, payment_mode_id, event_id,
+                           donation_count, total_amount, min_amount, max_amount
+                    FROM donation_daily_rollups
+                    WHERE donation_date BETWEEN ? AND ?
+                    UNION ALL
+                    SELECT branch_id, donation_date, purpose_id, payment_mode_id, COALESCE(event_id, 0),
+                           COUNT(*), SUM(amount), MIN(amount), MAX(amount)
+                    FROM donations
+                    WHERE is_active = TRUE AND donation_date BETWEEN ? AND ?
+                    GROUP BY branch_id, donation_date, purpose_id, payment_mode_id, COALESCE(event_id, 0)
+                ) both_sides
+                GROUP BY branch_id, donation_date, purpose_id, payment_mode_id, event_id,
+                         donation_count, total_amount, min_amount, max_amount
+                HAVING COUNT(*) = 1
+            ) unmatched
+            ORDER BY donation_date
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(Date.valueOf(fromDate))
+            .param(Date.valueOf(toDate))
+            .param(Date.valueOf(fromDate))
+            .param(Date.valueOf(toDate))
+            .query((rs, rowNum) -> rs.getDate("donation_date").toLocalDate())
+            .list();
+    }
+    
+    public Optional<LocalDate> findEarliestDonationDate() {
+        return jdbcClient.sql("SELECT MIN(donation_date) FROM donations")
+            .query(Date.class)
+            .optional()
+            .map(Date::toLocalDate);
+    }
+}
@@ -0,0 +1,116 @@
+package com.trustapp.repository;
+
+import com.trustapp.model.Donor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class DonorRepository {
+    
+    private final JdbcClient jdbcClient;
+    
+    public DonorRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+    
+    // A single upsert, so concurrent donations for the same new name cannot race on the unique key.
+    // first_donation_id is the lowest id among the name's active donations, which the dropdown returns.
+    public void incrementActiveDonations(String name, Long donationId) {
+        String sql = """
+            INSERT INTO donors (name, active_donations, first_donation_id)
+            VALUES (?, 1, ?)
+            ON DUPLICATE KEY UPDATE active_donations = active_donations + 1,
+                first_donation_id = LEAST(COALESCE(first_donation_id, ?), ?)
+            """;
+        
+        jdbcClient.sql(sql)
+            .param(name)
+            .param(donationId)
+            .param(donationId)
+            .param(donationId)
+            .update();
+    }
+    
+    // Call after the donation was renamed or soft deleted; the lowest remaining id is looked up through idx_donor_name
+    public void decrementActiveDonations(String name) {
+        String sql = """
+            UPDATE donors
+            SET active_donations = GREATEST(active_donations - 1, 0),
+                first_donation_id = (
+                    SELECT MIN(d.id)
+                    FROM donations d
+                    WHERE d.donor_name = ? AND d.is_active = TRUE
+                )
+            WHERE name = ?
+            """;
+        
+        jdbcClient.sql(sql)
+            .param(name)
+            .param(name)
+            .update();
+    }
+    
+    public List<Donor> findAllActive() {
+        String sql = """
+            SELECT id, name, active_donations AS activeDonations, first_donation_id AS firstDonationId,
+                   updated_at AS updatedAt
+            FROM donors
+            WHERE active_donations > 0
+            """;
+        
+        return jdbcClient.sql(sql)
+            .query((rs, rowNum) -> mapRowToDonor(rs))
+            .list();
+    }
+    
+    // Includes rows that dropped to zero active donations, so callers can remove them
+    public List<Donor> findUpdatedSince(LocalDateTime since) {
+        String sql = """
+            SELECT id, name, active_donations AS activeDonations, first_donation_id AS firstDonationId,
+                   updated_at AS updatedAt
+            FROM donors
+            WHERE updated_at >= ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(since)
+            .query((rs, rowNum) -> mapRowToDonor(rs))
+            .list();
+    }
+    
+    public List<Donor> findByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        
+        String sql = """
+            SELECT id, name, active_donations AS activeDonations, first_donation_id AS firstDonationId,
+                   updated_at AS updatedAt
+            FROM donors
+            WHERE name IN (%s)
+            """.formatted(String.join(", ", Collections.nCopies(names.size(), "?")));
+        
+        return jdbcClient.sql(sql)
+            .params(List.copyOf(names))
+            .query((rs, rowNum) -> mapRowToDonor(rs))
+            .list();
+    }
+    
+    private Donor mapRowToDonor(ResultSet rs) throws SQLException {
+        return new Donor(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getInt("activeDonations"),
+            rs.getObject("firstDonationId", Long.class),
+            rs.getTimestamp("updatedAt") != null ? rs.getTimestamp("updatedAt").toLocalDateTime() : null
+        );
+    }
+}
+
@@ -0,0 +1,56 @@
+package com.trustapp.repository;
+
+import java.util.List;
+import java.util.Locale;
+
+// Builds MATCH ... AGAINST (... IN BOOLEAN MODE) queries for the ngram full-text indexes on donations.
+// Search terms are folded exactly like the generated donor_name_folded / donor_search_text columns (V28),
+// so transliteration variants of a name meet on the same ngrams.
+public final class DonorSearchText {
+    
+    // Applied in order, after lower-casing; must stay identical to the REPLACE chain in V28
+    static final List<String[]> RULES = List.of(
+        new String[]{"x", "ks"}, new String[]{"bh", "b"}, new String[]{"dh", "d"}, new String[]{"th", "t"},
+        new String[]{"kh", "k"}, new String[]{"gh", "g"}, new String[]{"ph", "f"}, new String[]{"sh", "s"},
+        new String[]{"w", "v"}, new String[]{"q", "k"}, new String[]{"aa", "a"}, new String[]{"ee", "i"},
+        new String[]{"oo", "u"}, new String[]{"kk", "k"}, new String[]{"ll", "l"}, new String[]{"mm", "m"},
+        new String[]{"nn", "n"}, new String[]{"pp", "p"}, new String[]{"rr", "r"}, new String[]{"ss", "s"},
+        new String[]{"tt", "t"}, new String[]{"dd", "d"}
+    );
+    
+    // ngram_token_size defaults to 2; shorter terms never match anything in the index
+    private static final int MIN_TERM_LENGTH = 2;
+    
+    private DonorSearchText() {
+    }
+    
+    public static String fold(String text) {
+        String folded = text.toLowerCase(Locale.ROOT)
+            .replaceAll("[^\\p{L}\\p{N}]+", " ")
+            .trim();
+        for (String[] rule : RULES) {
+            folded = folded.replace(rule[0], rule[1]);
+        }
+        return folded;
+    }
+    
+    // Every term is required and matched as an ngram phrase, e.g. "Sree Laxmi" -> +"sri" +"laksmi".
+    // Returns null when no term is long enough, so callers can fall back to a prefix LIKE.
+    public static String booleanQuery(String input) {
+        if (input == null || input.isBlank()) {
+            return null;
+        }
+        
+        StringBuilder query = new StringBuilder();
+        for (String term : fold(input).split(" ")) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                if (!query.isEmpty()) {
+                    query.append(' ');
+                }
+                query.append("+\"").append(term).append('"');
+            }
+        }
+        return query.isEmpty() ? null : query.toString();
+    }
+}
+
@@ -0,0 +1,74 @@
+package com.trustapp.repository;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+// event_donation_stats keeps donation count, total and distinct donor count per event; event_donors
+// holds the per-donor counts behind donor_count. add and remove run inside the donation write's
+// transaction, like the daily rollups.
+@Repository
+public class EventDonationStatsRepository {
+    
+    private final JdbcClient jdbcClient;
+    
+    public EventDonationStatsRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+    
+    public void add(Long eventId, String donorName, BigDecimal amount) {
+        // MySQL reports 1 affected row for a fresh insert and 2 when the duplicate key was updated,
+        // so a result of 1 means this is the donor's first active donation to the event
+        int donorRows = jdbcClient.sql("""
+                INSERT INTO event_donors (event_id, donor_name, donation_count)
+                VALUES (?, ?, 1)
+                ON DUPLICATE KEY UPDATE donation_count = donation_count + 1
+                """)
+            .param(eventId)
+            .param(donorName)
+            .update();
+        int newDonors = donorRows == 1 ? 1 : 0;
+        
+        jdbcClient.sql("""
+                INSERT INTO event_donation_stats (event_id, donation_count, total_amount, donor_count)
+                VALUES (?, 1, ?, ?)
+                ON DUPLICATE KEY UPDATE donation_count = donation_count + 1,
+                    total_amount = total_amount + ?,
+                    donor_count = donor_count + ?
+                """)
+            .param(eventId)
+            .param(amount)
+            .param(newDonors)
+            .param(amount)
+            .param(newDonors)
+            .update();
+    }
+    
+    public void remove(Long eventId, String donorName, BigDecimal amount) {
+        jdbcClient.sql("""
+                UPDATE event_donors
+                SET donation_count = donation_count - 1
+                WHERE event_id = ? AND donor_name = ? AND donation_count > 0
+                """)
+            .param(eventId)
+            .param(donorName)
+            .update();
+        int lostDonors = jdbcClient.sql("DELETE FROM event_donors WHERE event_id = ? AND donor_name = ? AND donation_count = 0")
+            .param(eventId)
+            .param(donorName)
+            .update();
+        
+        jdbcClient.sql("""
+                UPDATE event_donation_stats
+                SET donation_count = GREATEST(donation_count - 1, 0),
+                    total_amount = total_amount - ?,
+                    donor_count = GREATEST(donor_count - ?, 0)
+                WHERE event_id = ?
+                """)
+            .param(amount)
+            .param(lostDonors)
+            .param(eventId)
+            .update();
+    }
+}
@@ -1,11 +1,16 @@
 package com.trustapp.repository;
 
 import com.trustapp.dto.EventDTO;
+import com.trustapp.dto.EventDashboardDTO;
 import com.trustapp.dto.EventDropdownDTO;
+import com.trustapp.model.EventMonthStats;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -176,5 +181,128 @@ public class EventRepository {
             return dto;
         }).list();
     }
+    
+    // The dashboard reads per-event totals from event_donation_stats, never the donations themselves.
+    // Events are selected by start date (idx_branch_start_date when a branch is given).
+    public List<EventMonthStats> findMonthStats(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        String sql = """
+            SELECT MONTH(e.start_date) AS month,
+                   COUNT(*) AS eventCount,
+                   SUM(CASE WHEN e.status = 'PLANNED' THEN 1 ELSE 0 END) AS plannedCount,
+                   SUM(CASE WHEN e.status = 'ACTIVE' THEN 1 ELSE 0 END) AS activeCount,
+                   SUM(CASE WHEN e.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completedCount,
+                   SUM(CASE WHEN e.status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelledCount,
+                   COALESCE(SUM(s.total_amount), 0) AS totalIncome,
+                   COALESCE(SUM(s.donation_count), 0) AS donationCount
+            FROM events e
+            LEFT JOIN event_donation_stats s ON s.event_id = e.id
+            """ + dashboardFilter(branchId) + """
+            GROUP BY MONTH(e.start_date)
+            ORDER BY month
+            """;
+        
+        return jdbcClient.sql(sql)
+            .params(dashboardParams(branchId, fromDate, toDate))
+            .query((rs, rowNum) -> new EventMonthStats(
+                rs.getInt("month"),
+                rs.getLong("eventCount"),
+                rs.getLong("plannedCount"),
+                rs.getLong("activeCount"),
+                rs.getLong("completedCount"),
+                rs.getLong("cancelledCount"),
+                rs.getBigDecimal("totalIncome"),
+                rs.getLong("donationCount")
+            ))
+            .list();
+    }
+    
+    public List<EventDashboardDTO.UpcomingEvent> findUpcoming(Long branchId, LocalDate fromDate, LocalDate toDate,
+                                                              LocalDate today, int limit) {
+        String sql = """
+            SELECT e.id, e.code, e.name, e.start_date, e.status, DATEDIFF(e.start_date, ?) AS daysUntilStart
+            FROM events e
+            """ + dashboardFilter(branchId) + """
+            AND e.status = 'PLANNED' AND e.start_date >= ?
+            ORDER BY e.start_date, e.id
+            LIMIT ?
+            """;
+        
+        List<Object> params = new ArrayList<>();
+        params.add(Date.valueOf(today));
+        params.addAll(dashboardParams(branchId, fromDate, toDate));
+        params.add(Date.valueOf(today));
+        params.add(limit);
+        
+        return jdbcClient.sql(sql)
+            .params(params)
+            .query((rs, rowNum) -> new EventDashboardDTO.UpcomingEvent(
+                rs.getLong("id"),
+                rs.getString("code"),
+                rs.getString("name"),
+                rs.getDate("start_date").toLocalDate(),
+                rs.getString("status"),
+                rs.getLong("daysUntilStart")
+            ))
+            .list();
+    }
+    
+    public List<EventDashboardDTO.EventTotals> findActiveWithTotals(Long branchId, LocalDate fromDate, LocalDate toDate,
+                                                                    int limit) {
+        return findWithTotals(branchId, fromDate, toDate, "AND e.status = 'ACTIVE'", "e.start_date, e.id", limit);
+    }
+    
+    public List<EventDashboardDTO.EventTotals> findTopByCollection(Long branchId, LocalDate fromDate, LocalDate toDate,
+                                                                   int limit) {
+        return findWithTotals(branchId, fromDate, toDate, "AND s.total_amount > 0", "s.total_amount DESC, e.id", limit);
+    }
+    
+    private List<EventDashboardDTO.EventTotals> findWithTotals(Long branchId, LocalDate fromDate, LocalDate toDate,
+                                                               String condition, String orderBy, int limit) {
+        String sql = """
+            SELECT e.id, e.code, e.name, e.start_date, e.end_date, e.status,
+                   COALESCE(s.total_amount, 0) AS totalAmount,
+                   COALESCE(s.donation_count, 0) AS donationCount,
+                   COALESCE(s.donor_count, 0) AS donorCount
+            FROM events e
+            LEFT JOIN event_donation_stats s ON s.event_id = e.id
+            """ + dashboardFilter(branchId) + condition + " ORDER BY " + orderBy + " LIMIT ?";
+        
+        List<Object> params = dashboardParams(branchId, fromDate, toDate);
+        params.add(limit);
+        
+        return jdbcClient.sql(sql)
+            .params(params)
+            .query((rs, rowNum) -> {
+                BigDecimal totalDonations = rs.getBigDecimal("totalAmount");
+                // There is no expense ledger per event yet
+                return new EventDashboardDTO.EventTotals(
+                    rs.getLong("id"),
+                    rs.getString("code"),
+                    rs.getString("name"),
+                    rs.getDate("start_date").toLocalDate(),
+                    rs.getDate("end_date") != null ? rs.getDate("end_date").toLocalDate() : null,
+                    rs.getString("status"),
+                    totalDonations,
+                    BigDecimal.ZERO,
+                    totalDonations,
+                    rs.getLong("donationCount"),
+                    rs.getLong("donorCount")
+                );
+            })
+            .list();
+    }
+    
+    private static String dashboardFilter(Long branchId) {
+        return "WHERE e.is_active = TRUE AND e.start_date BETWEEN ? AND ?" + (branchId != null ? " AND e.branch_id = ?" : "") + "\n";
+    }
+    
+    private static List<Object> dashboardParams(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        List<Object> params = new ArrayList<>();
+        params.add(Date.valueOf(fromDate));
+        params.add(Date.valueOf(toDate));
+        if (branchId != null) {
+            params.add(branchId);
+        }
+        return params;
+    }
 }
-
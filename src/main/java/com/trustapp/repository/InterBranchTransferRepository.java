@@ -1,6 +1,7 @@
 package com.trustapp.repository;
 
 import com.trustapp.dto.InterBranchTransferDTO;
+import com.trustapp.model.RowTimestamps;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
@@ -11,6 +12,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -78,6 +80,21 @@ public class InterBranchTransferRepository {
             .optional();
     }
     
+    // The timestamps come from the database clock, like every other table's, so a write reads them back
+    // by primary key in its own transaction instead of re-reading the whole join
+    public RowTimestamps findTimestamps(Long id) {
+        String sql = """
+            SELECT created_at AS createdAt, updated_at AS updatedAt
+            FROM inter_branch_transfers
+            WHERE id = ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(id)
+            .query(RowTimestamps.class)
+            .single();
+    }
+    
     public boolean existsByTransferNumber(String transferNumber) {
         String sql = """
             SELECT COUNT(*) > 0
@@ -106,11 +123,47 @@ public class InterBranchTransferRepository {
             .update();
     }
     
-    public List<InterBranchTransferDTO> findAll(Long fromBranchId, Long toBranchId, String status,
-                                                 LocalDate fromDate, LocalDate toDate,
-                                                 List<Long> accessibleBranchIds,
-                                                 int page, int size, String sortBy, String sortDir) {
-        StringBuilder sql = new StringBuilder("""
+    // Same shape as DonationRepository.findAll: filter, sort, count and limit over the transfers
+    // table alone, then join only the page rows to branches, payment modes and users
+    public PagedResult<InterBranchTransferDTO> findAll(Long fromBranchId, Long toBranchId, String status,
+                                                        LocalDate fromDate, LocalDate toDate,
+                                                        List<Long> accessibleBranchIds,
+                                                        int page, int size, String sortBy, String sortDir,
+                                                        KeysetCursor after, boolean withTotal) {
+        boolean counting = withTotal && after == null;
+        
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(fromBranchId, toBranchId, status, fromDate, toDate,
+            accessibleBranchIds, params);
+        
+        String sortField = getSortField(sortBy);
+        String direction = sortDirection(sortDir);
+        
+        // Keyset mode: seek past the cursor row instead of skipping OFFSET rows
+        if (after != null) {
+            conditions.add(after.condition(sortField, "ibt.id"));
+            params.addAll(after.params(parseSortValue(sortKey(sortBy), after.value())));
+        }
+        
+        // id breaks ties so pages are stable
+        String orderBy = " ORDER BY " + sortField + " " + direction + ", ibt.id " + direction;
+        
+        StringBuilder sql = new StringBuilder("SELECT ibt.id")
+            .append(counting ? ", COUNT(*) OVER() AS " + PagedResult.TOTAL_COLUMN : "")
+            .append(" FROM inter_branch_transfers ibt")
+            .append(" WHERE ").append(String.join(" AND ", conditions))
+            .append(orderBy);
+        
+        // Without a count, one extra row tells whether there is a next page
+        long offset = after != null ? 0 : (long) page * size;
+        sql.append(" LIMIT ?");
+        params.add(counting ? size : size + 1);
+        if (after == null) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+        
+        String pageSql = """
             SELECT ibt.id, ibt.transfer_number AS transferNumber,
                    ibt.amount, ibt.transfer_date AS transferDate,
                    ibt.reference_number AS referenceNumber, ibt.description,
@@ -120,114 +173,46 @@ public class InterBranchTransferRepository {
                    tb.id AS toBranchId, tb.code AS toBranchCode, tb.name AS toBranchName,
                    pm.id AS paymentModeId, pm.code AS paymentModeCode, pm.name AS paymentModeName,
                    u1.id AS createdById, u1.username AS createdByUsername, u1.email AS createdByEmail,
-                   u2.id AS updatedById, u2.username AS updatedByUsername, u2.email AS updatedByEmail
-            FROM inter_branch_transfers ibt
+                   u2.id AS updatedById, u2.username AS updatedByUsername, u2.email AS updatedByEmail%s
+            FROM (%s) page
+            INNER JOIN inter_branch_transfers ibt ON ibt.id = page.id
             INNER JOIN branches fb ON ibt.from_branch_id = fb.id
             INNER JOIN branches tb ON ibt.to_branch_id = tb.id
             INNER JOIN payment_modes pm ON ibt.payment_mode_id = pm.id
             LEFT JOIN users u1 ON ibt.created_by = u1.id
             LEFT JOIN users u2 ON ibt.updated_by = u2.id
-            """);
-        
-        List<String> conditions = new ArrayList<>();
-        List<Object> params = new ArrayList<>();
+            """.formatted(counting ? ", page." + PagedResult.TOTAL_COLUMN : "", sql) + orderBy;
         
-        // Build WHERE conditions
-        conditions.add("ibt.is_active = TRUE");
+        PagedResult<InterBranchTransferDTO> result = PagedResult.read(jdbcClient.sql(pageSql).params(params),
+            (rs, rowNum) -> mapRowToInterBranchTransferDTO(rs), size, offset, counting);
         
-        if (fromBranchId != null) {
-            conditions.add("ibt.from_branch_id = ?");
-            params.add(fromBranchId);
-        }
-        
-        if (toBranchId != null) {
-            conditions.add("ibt.to_branch_id = ?");
-            params.add(toBranchId);
-        }
-        
-        if (status != null && !status.trim().isEmpty()) {
-            conditions.add("ibt.status = ?");
-            params.add(status);
+        // Requested page lies past the end, so no row carried the total
+        if (counting && result.total() == null) {
+            result = result.withTotal(count(fromBranchId, toBranchId, status, fromDate, toDate, accessibleBranchIds));
         }
-        
-        if (fromDate != null) {
-            conditions.add("ibt.transfer_date >= ?");
-            params.add(fromDate);
-        }
-        
-        if (toDate != null) {
-            conditions.add("ibt.transfer_date <= ?");
-            params.add(toDate);
-        }
-        
-        // Branch access filter - users see only transfers involving branches they have access to
-        // If accessibleBranchIds is null, user is super user (see all transfers)
-        // If accessibleBranchIds is empty, user has no branch access (see no transfers)
-        // Otherwise, filter by: fromBranchId IN accessibleBranchIds OR toBranchId IN accessibleBranchIds
-        if (accessibleBranchIds != null) {
-            if (accessibleBranchIds.isEmpty()) {
-                // User has no branch access, return empty result
-                conditions.add("1 = 0");
-            } else {
-                // User has access to specific branches - show transfers where from or to branch is in accessible list
-                StringBuilder branchFilter = new StringBuilder("(");
-                branchFilter.append("ibt.from_branch_id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) branchFilter.append(", ");
-                    branchFilter.append("?");
-                }
-                branchFilter.append(") OR ibt.to_branch_id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) branchFilter.append(", ");
-                    branchFilter.append("?");
-                }
-                branchFilter.append(")");
-                branchFilter.append(")");
-                conditions.add(branchFilter.toString());
-                // Add params twice - once for fromBranchId IN clause, once for toBranchId IN clause
-                for (Long branchId : accessibleBranchIds) {
-                    params.add(branchId);
-                }
-                for (Long branchId : accessibleBranchIds) {
-                    params.add(branchId);
-                }
-            }
-        }
-        
-        if (!conditions.isEmpty()) {
-            sql.append(" WHERE ").append(String.join(" AND ", conditions));
-        }
-        
-        // Add ORDER BY
-        String sortField = getSortField(sortBy);
-        String direction = "DESC".equalsIgnoreCase(sortDir) ? "DESC" : "ASC";
-        sql.append(" ORDER BY ").append(sortField).append(" ").append(direction);
-        
-        // Add pagination
-        sql.append(" LIMIT ? OFFSET ?");
-        params.add(size);
-        params.add(page * size);
-        
-        JdbcClient.StatementSpec query = jdbcClient.sql(sql.toString());
-        for (Object param : params) {
-            query = query.param(param);
-        }
-        
-        return query.query((rs, rowNum) -> mapRowToInterBranchTransferDTO(rs)).list();
+        return result;
     }
     
     public long count(Long fromBranchId, Long toBranchId, String status,
                       LocalDate fromDate, LocalDate toDate,
                       List<Long> accessibleBranchIds) {
-        StringBuilder sql = new StringBuilder("""
-            SELECT COUNT(*)
-            FROM inter_branch_transfers ibt
-            """);
-        
-        List<String> conditions = new ArrayList<>();
         List<Object> params = new ArrayList<>();
+        List<String> conditions = buildConditions(fromBranchId, toBranchId, status, fromDate, toDate,
+            accessibleBranchIds, params);
+        
+        String sql = "SELECT COUNT(*) FROM inter_branch_transfers ibt WHERE " + String.join(" AND ", conditions);
         
-        // Build WHERE conditions (same as findAll)
+        return jdbcClient.sql(sql)
+            .params(params)
+            .query(Long.class)
+            .single();
+    }
+    
+    // Filters shared by findAll and count; appends the bind values to params in placeholder order
+    private List<String> buildConditions(Long fromBranchId, Long toBranchId, String status,
+                                         LocalDate fromDate, LocalDate toDate,
+                                         List<Long> accessibleBranchIds, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
         conditions.add("ibt.is_active = TRUE");
         
         if (fromBranchId != null) {
@@ -255,58 +240,65 @@ public class InterBranchTransferRepository {
             params.add(toDate);
         }
         
-        // Branch access filter (same as findAll)
+        // Branch access filter - users see only transfers involving branches they have access to
+        // If accessibleBranchIds is null, user is super user (see all transfers)
+        // If accessibleBranchIds is empty, user has no branch access (see no transfers)
+        // Otherwise, filter by: fromBranchId IN accessibleBranchIds OR toBranchId IN accessibleBranchIds
         if (accessibleBranchIds != null) {
             if (accessibleBranchIds.isEmpty()) {
+                // User has no branch access, return empty result
                 conditions.add("1 = 0");
             } else {
-                StringBuilder branchFilter = new StringBuilder("(");
-                branchFilter.append("ibt.from_branch_id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) branchFilter.append(", ");
-                    branchFilter.append("?");
-                }
-                branchFilter.append(") OR ibt.to_branch_id IN (");
-                for (int i = 0; i < accessibleBranchIds.size(); i++) {
-                    if (i > 0) branchFilter.append(", ");
-                    branchFilter.append("?");
-                }
-                branchFilter.append(")");
-                branchFilter.append(")");
-                conditions.add(branchFilter.toString());
+                String placeholders = String.join(", ", Collections.nCopies(accessibleBranchIds.size(), "?"));
+                conditions.add("(ibt.from_branch_id IN (" + placeholders + ") OR ibt.to_branch_id IN (" + placeholders + "))");
                 // Add params twice - once for fromBranchId IN clause, once for toBranchId IN clause
-                for (Long branchId : accessibleBranchIds) {
-                    params.add(branchId);
-                }
-                for (Long branchId : accessibleBranchIds) {
-                    params.add(branchId);
-                }
+                params.addAll(accessibleBranchIds);
+                params.addAll(accessibleBranchIds);
             }
         }
         
-        if (!conditions.isEmpty()) {
-            sql.append(" WHERE ").append(String.join(" AND ", conditions));
-        }
-        
-        JdbcClient.StatementSpec query = jdbcClient.sql(sql.toString());
-        for (Object param : params) {
-            query = query.param(param);
-        }
-        
-        return query.query(Long.class).single();
+        return conditions;
     }
     
     private String getSortField(String sortBy) {
-        if (sortBy == null || sortBy.trim().isEmpty()) {
-            return "ibt.transfer_date";
-        }
-        return switch (sortBy.toLowerCase()) {
+        return switch (sortKey(sortBy)) {
             case "amount" -> "ibt.amount";
             case "createdat" -> "ibt.created_at";
             default -> "ibt.transfer_date";
         };
     }
     
+    public KeysetCursor cursorAfter(InterBranchTransferDTO last, String sortBy, String sortDir) {
+        String sortKey = sortKey(sortBy);
+        Object value = switch (sortKey) {
+            case "amount" -> last.getAmount();
+            case "createdat" -> last.getCreatedAt();
+            default -> last.getTransferDate();
+        };
+        return new KeysetCursor(sortKey, sortDirection(sortDir), String.valueOf(value), last.getId());
+    }
+    
+    public static String sortKey(String sortBy) {
+        String key = sortBy != null ? sortBy.trim().toLowerCase() : "transferdate";
+        return key.equals("amount") || key.equals("createdat") ? key : "transferdate";
+    }
+    
+    public static String sortDirection(String sortDir) {
+        return "DESC".equalsIgnoreCase(sortDir) ? "DESC" : "ASC";
+    }
+    
+    private Object parseSortValue(String sortKey, String value) {
+        try {
+            return switch (sortKey) {
+                case "amount" -> new BigDecimal(value);
+                case "createdat" -> java.time.LocalDateTime.parse(value);
+                default -> LocalDate.parse(value);
+            };
+        } catch (RuntimeException e) {
+            throw new com.trustapp.exception.ValidationException("Invalid cursor");
+        }
+    }
+    
     private InterBranchTransferDTO mapRowToInterBranchTransferDTO(ResultSet rs) throws SQLException {
         InterBranchTransferDTO dto = new InterBranchTransferDTO();
         dto.setId(rs.getLong("id"));
@@ -0,0 +1,47 @@
+package com.trustapp.repository;
+
+import com.trustapp.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// Opaque position in a sorted listing: the last row's sort value plus its id as tie-breaker.
+// Seeking past it uses the (sort column, id) index instead of skipping OFFSET rows.
+public record KeysetCursor(String sortKey, String direction, String value, Long id) {
+    
+    private static final String SEPARATOR = "|";
+    
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortKey, direction, value, String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // The cursor must come from a listing with the same sort, otherwise the seek is meaningless
+    public static KeysetCursor decode(String cursor, String sortKey, String direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new ValidationException("Invalid cursor");
+            }
+            if (!parts[0].equals(sortKey) || !parts[1].equals(direction)) {
+                throw new ValidationException("Cursor does not match the requested sortBy/sortDir");
+            }
+            return new KeysetCursor(parts[0], parts[1], parts[2], Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+    
+    // (col < v OR (col = v AND id < lastId)) for DESC, > for ASC
+    public String condition(String column, String idColumn) {
+        String operator = "DESC".equals(direction) ? "<" : ">";
+        return "(" + column + " " + operator + " ? OR (" + column + " = ? AND " + idColumn + " " + operator + " ?))";
+    }
+    
+    public List<Object> params(Object typedValue) {
+        return List.of(typedValue, typedValue, id);
+    }
+}
+
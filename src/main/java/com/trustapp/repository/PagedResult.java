@@ -0,0 +1,47 @@
+package com.trustapp.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One page of a listing plus what the caller needs for paging metadata.
+// total is null when counting was skipped (withTotal=false or keyset mode).
+public record PagedResult<T>(List<T> content, Long total, boolean hasNext) {
+    
+    public static final String TOTAL_COLUMN = "totalCount";
+    
+    // Reads a page in one round trip. With withTotal the rows carry COUNT(*) OVER() AS totalCount,
+    // otherwise the statement must LIMIT size + 1 and the extra look-ahead row only sets hasNext.
+    // An empty page past the first leaves total null; the caller decides whether to count separately.
+    static <T> PagedResult<T> read(JdbcClient.StatementSpec query, RowMapper<T> rowMapper,
+                                   int size, long offset, boolean withTotal) {
+        return query.query(rs -> {
+            List<T> content = new ArrayList<>();
+            Long total = null;
+            while (rs.next()) {
+                if (withTotal && total == null) {
+                    total = rs.getLong(TOTAL_COLUMN);
+                }
+                content.add(rowMapper.mapRow(rs, content.size()));
+            }
+            
+            if (withTotal) {
+                if (total == null && offset == 0) {
+                    total = 0L;
+                }
+                return new PagedResult<>(content, total, total != null && offset + content.size() < total);
+            }
+            
+            boolean hasNext = content.size() > size;
+            return new PagedResult<>(hasNext ? new ArrayList<>(content.subList(0, size)) : content, null, hasNext);
+        });
+    }
+    
+    // Used when the requested page lies beyond the last row
+    PagedResult<T> withTotal(long total) {
+        return new PagedResult<>(content, total, false);
+    }
+}
+
@@ -4,6 +4,8 @@ import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -76,5 +78,47 @@ public class PasswordResetTokenRepository {
         
         jdbcClient.sql(sql).update();
     }
+    
+    // Retention: reset links are useless once expired, whether they were used or not
+    public List<Long> findIdsExpiredBefore(LocalDateTime cutoff, int limit) {
+        String sql = """
+            SELECT id
+            FROM password_reset_tokens
+            WHERE expires_at < ?
+            ORDER BY expires_at
+            LIMIT ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(cutoff)
+            .param(limit)
+            .query(Long.class)
+            .list();
+    }
+    
+    public long countExpiredBefore(LocalDateTime cutoff) {
+        String sql = """
+            SELECT COUNT(*)
+            FROM password_reset_tokens
+            WHERE expires_at < ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(cutoff)
+            .query(Long.class)
+            .single();
+    }
+    
+    public int deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "DELETE FROM password_reset_tokens WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        
+        return jdbcClient.sql(sql)
+            .params(ids)
+            .update();
+    }
 }
 
@@ -4,7 +4,6 @@ import com.trustapp.dto.SerialNumberConfigDTO;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -114,66 +113,52 @@ public class SerialNumberConfigRepository {
             .update();
     }
     
-    @Transactional
-    public String getNextSerialNumber(String entityType) {
-        int currentYear = java.time.LocalDate.now().getYear();
+    // Advances the counter of one (entity type, branch, period) scope by count, creating it on first use,
+    // and returns the new last sequence. The upsert locks only that scope's row, until the surrounding
+    // transaction ends.
+    public int reserveSequences(String entityType, long branchId, int periodYear, int count) {
+        String upsertSql = """
+            INSERT INTO serial_number_sequences (entity_type, branch_id, period_year, last_sequence)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE last_sequence = last_sequence + ?, updated_at = CURRENT_TIMESTAMP
+            """;
+        jdbcClient.sql(upsertSql)
+            .param(entityType)
+            .param(branchId)
+            .param(periodYear)
+            .param(count)
+            .param(count)
+            .update();
         
-        // Lock row for update
         String selectSql = """
-            SELECT id, entity_type AS entityType, prefix, format_pattern AS formatPattern,
-                   current_year AS currentYear, last_sequence AS lastSequence,
-                   sequence_length AS sequenceLength
-            FROM serial_number_config
-            WHERE entity_type = ?
-            FOR UPDATE
+            SELECT last_sequence
+            FROM serial_number_sequences
+            WHERE entity_type = ? AND branch_id = ? AND period_year = ?
             """;
         
-        Optional<SerialNumberConfigDTO> configOpt = jdbcClient.sql(selectSql)
+        return jdbcClient.sql(selectSql)
             .param(entityType)
-            .query(SerialNumberConfigDTO.class)
-            .optional();
-        
-        SerialNumberConfigDTO config;
-        if (configOpt.isEmpty()) {
-            throw new IllegalStateException("Serial number config not found for entity: " + entityType);
-        }
-        
-        config = configOpt.get();
-        
-        // Reset sequence if year changed
-        if (config.getCurrentYear() != currentYear) {
-            String updateYearSql = """
-                UPDATE serial_number_config
-                SET current_year = ?, last_sequence = 0,
-                    updated_at = CURRENT_TIMESTAMP
-                WHERE entity_type = ?
-                """;
-            jdbcClient.sql(updateYearSql)
-                .param(currentYear)
-                .param(entityType)
-                .update();
-            config.setCurrentYear(currentYear);
-            config.setLastSequence(0);
-        }
-        
-        // Increment sequence
-        int newSequence = config.getLastSequence() + 1;
-        String updateSeqSql = """
-            UPDATE serial_number_config
-            SET last_sequence = ?, updated_at = CURRENT_TIMESTAMP
-            WHERE entity_type = ?
+            .param(branchId)
+            .param(periodYear)
+            .query(Integer.class)
+            .single();
+    }
+    
+    // Lets a new configuration continue an existing branch-wide receipt book. periodYear is the calendar year,
+    // or the financial year's start year for {FY} patterns.
+    public void seedSequence(String entityType, int periodYear, int lastSequence) {
+        String sql = """
+            INSERT INTO serial_number_sequences (entity_type, branch_id, period_year, last_sequence)
+            VALUES (?, 0, ?, ?)
+            ON DUPLICATE KEY UPDATE last_sequence = GREATEST(last_sequence, ?)
             """;
-        jdbcClient.sql(updateSeqSql)
-            .param(newSequence)
+        
+        jdbcClient.sql(sql)
             .param(entityType)
+            .param(periodYear)
+            .param(lastSequence)
+            .param(lastSequence)
             .update();
-        
-        // Generate serial number
-        String sequence = String.format("%0" + config.getSequenceLength() + "d", newSequence);
-        return config.getFormatPattern()
-            .replace("{PREFIX}", config.getPrefix())
-            .replace("{YEAR}", String.valueOf(currentYear))
-            .replace("{SEQUENCE}", sequence);
     }
 }
 
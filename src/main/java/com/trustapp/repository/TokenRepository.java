@@ -1,10 +1,19 @@
 package com.trustapp.repository;
 
 import com.trustapp.model.Token;
+import com.trustapp.model.TokenRevocationBatch;
 import com.trustapp.model.User;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,13 +28,17 @@ public class TokenRepository {
     
     public Token saveUserToken(Token token) {
         String sql = """
-            INSERT INTO tokens (token, token_type, revoked, expired, expires_at, user_id)
+            INSERT INTO tokens (token_hash, token_type, revoked, expired, expires_at, user_id)
             VALUES (?, ?, ?, ?, ?, ?)
             """;
         
+        if (token.getTokenHash() == null) {
+            token.setTokenHash(hash(token.getToken()));
+        }
+        
         var keyHolder = new org.springframework.jdbc.support.GeneratedKeyHolder();
         jdbcClient.sql(sql)
-            .param(token.getToken())
+            .param(token.getTokenHash())
             .param(token.getType().name())
             .param(token.getRevoked() != null ? token.getRevoked() : false)
             .param(token.getExpired() != null ? token.getExpired() : false)
@@ -40,32 +53,35 @@ public class TokenRepository {
     public void updateStatus(Token token) {
         String sql = """
             UPDATE tokens
-            SET expired = ?, revoked = ?
-            WHERE token = ?
+            SET expired = ?, revoked = ?,
+                invalidated_at = CASE WHEN ? OR ? THEN COALESCE(invalidated_at, CURRENT_TIMESTAMP) ELSE NULL END
+            WHERE token_hash = ?
             """;
         
         jdbcClient.sql(sql)
             .param(token.getExpired())
             .param(token.getRevoked())
-            .param(token.getToken())
+            .param(token.getExpired())
+            .param(token.getRevoked())
+            .param(token.getTokenHash() != null ? token.getTokenHash() : hash(token.getToken()))
             .update();
     }
     
     public void markTokenAsExpired(String jwt) {
         String sql = """
             UPDATE tokens
-            SET expired = TRUE
-            WHERE token = ?
+            SET expired = TRUE, invalidated_at = COALESCE(invalidated_at, CURRENT_TIMESTAMP)
+            WHERE token_hash = ?
             """;
         
         jdbcClient.sql(sql)
-            .param(jwt)
+            .param(hash(jwt))
             .update();
     }
     
     public List<Token> findAllValidJwtTokensByUser(Long userId) {
         String sql = """
-            SELECT t.id, t.token, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
+            SELECT t.id, t.token_hash, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
                    u.id, u.username, u.email, u.password_hash, 
                    u.full_name, u.phone, u.is_active, u.is_locked
             FROM tokens t
@@ -76,123 +92,142 @@ public class TokenRepository {
         
         return jdbcClient.sql(sql)
             .param(userId)
-            .query((rs, rowNum) -> {
-                Token token = new Token();
-                token.setId(rs.getLong("t.id"));
-                token.setToken(rs.getString("t.token"));
-                token.setType(Token.TokenType.valueOf(rs.getString("t.token_type")));
-                token.setRevoked(rs.getBoolean("t.revoked"));
-                token.setExpired(rs.getBoolean("t.expired"));
-                token.setExpiresAt(rs.getTimestamp("t.expires_at").toLocalDateTime());
-                
-                User user = User.builder()
-                    .id(rs.getLong("u.id"))
-                    .username(rs.getString("u.username"))
-                    .email(rs.getString("u.email"))
-                    .password(rs.getString("u.password_hash"))
-                    .fullName(rs.getString("u.full_name"))
-                    .phone(rs.getString("u.phone"))
-                    .isActive(rs.getBoolean("u.is_active"))
-                    .isLocked(rs.getBoolean("u.is_locked"))
-                    .build();
-                token.setUser(user);
-                return token;
-            })
+            .query((rs, rowNum) -> mapRowToToken(rs))
             .list();
     }
     
     public void revokeAllUserTokens(List<Token> tokens) {
-        for (Token token : tokens) {
-            String sql = """
-                UPDATE tokens
-                SET revoked = ?, expired = ?
-                WHERE id = ?
-                """;
-            jdbcClient.sql(sql)
-                .param(true)
-                .param(true)
-                .param(token.getId())
-                .update();
+        if (tokens.isEmpty()) {
+            return;
+        }
+        
+        String sql = """
+            UPDATE tokens
+            SET revoked = TRUE, expired = TRUE, invalidated_at = COALESCE(invalidated_at, CURRENT_TIMESTAMP)
+            WHERE id IN (%s)
+            """.formatted(placeholders(tokens.size()));
+        
+        jdbcClient.sql(sql)
+            .params(tokens.stream().map(Token::getId).toList())
+            .update();
+    }
+    
+    // Bulk revocation: one UPDATE for a batch of users, returns the number of tokens revoked
+    public int revokeTokensByUserIds(List<Long> userIds, boolean includeRefreshTokens) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = """
+            UPDATE tokens
+            SET revoked = TRUE, expired = TRUE, invalidated_at = COALESCE(invalidated_at, CURRENT_TIMESTAMP)
+            WHERE user_id IN (%s)
+            AND revoked = FALSE
+            AND (? OR token_type = 'BEARER')
+            """.formatted(placeholders(userIds.size()));
+        
+        List<Object> params = new ArrayList<>(userIds);
+        params.add(includeRefreshTokens);
+        
+        return jdbcClient.sql(sql)
+            .params(params)
+            .update();
+    }
+    
+    // Bulk revocation: revokes at most `limit` live tokens issued before the cutoff, oldest first.
+    // Each batch seeks past the (issued_at, id) of the previous one on idx_issued_at, so it does not
+    // rescan the tokens earlier batches already revoked. Callers pass the returned batch back in and
+    // repeat until fewer than `limit` tokens were scanned.
+    public TokenRevocationBatch revokeTokensIssuedBefore(LocalDateTime issuedBefore, boolean includeRefreshTokens,
+                                                         TokenRevocationBatch after, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(issuedBefore);
+        String keyset = "";
+        if (after != null) {
+            keyset = "AND (issued_at > ? OR (issued_at = ? AND id > ?))";
+            params.addAll(List.of(after.lastIssuedAt(), after.lastIssuedAt(), after.lastId()));
         }
+        params.add(includeRefreshTokens);
+        params.add(limit);
+        
+        String sql = """
+            SELECT id, issued_at
+            FROM tokens
+            WHERE issued_at < ? %s
+            AND revoked = FALSE
+            AND (? OR token_type = 'BEARER')
+            ORDER BY issued_at, id
+            LIMIT ?
+            """.formatted(keyset);
+        
+        record Key(Long id, LocalDateTime issuedAt) {
+        }
+        List<Key> keys = jdbcClient.sql(sql)
+            .params(params)
+            .query((rs, rowNum) -> new Key(rs.getLong("id"), rs.getTimestamp("issued_at").toLocalDateTime()))
+            .list();
+        if (keys.isEmpty()) {
+            return new TokenRevocationBatch(0, 0, null, null);
+        }
+        
+        // revoked = FALSE again: a token revoked since the SELECT is not counted twice
+        String update = """
+            UPDATE tokens
+            SET revoked = TRUE, expired = TRUE, invalidated_at = COALESCE(invalidated_at, CURRENT_TIMESTAMP)
+            WHERE id IN (%s)
+            AND revoked = FALSE
+            """.formatted(placeholders(keys.size()));
+        int revoked = jdbcClient.sql(update)
+            .params(keys.stream().map(Key::id).toList())
+            .update();
+        
+        Key last = keys.get(keys.size() - 1);
+        return new TokenRevocationBatch(keys.size(), revoked, last.issuedAt(), last.id());
     }
     
     public Optional<Token> findJwtToken(String jwt) {
         String sql = """
-            SELECT t.id, t.token, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
+            SELECT t.id, t.token_hash, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
                    u.id, u.username, u.email, u.password_hash, 
                    u.full_name, u.phone, u.is_active, u.is_locked
             FROM tokens t
             JOIN users u ON t.user_id = u.id
-            WHERE t.token = ? AND t.token_type = 'BEARER'
+            WHERE t.token_hash = ? AND t.token_type = 'BEARER'
             """;
         
         return jdbcClient.sql(sql)
-            .param(jwt)
-            .query((rs, rowNum) -> {
-                Token token = new Token();
-                token.setId(rs.getLong("t.id"));
-                token.setToken(rs.getString("t.token"));
-                token.setType(Token.TokenType.valueOf(rs.getString("t.token_type")));
-                token.setRevoked(rs.getBoolean("t.revoked"));
-                token.setExpired(rs.getBoolean("t.expired"));
-                token.setExpiresAt(rs.getTimestamp("t.expires_at").toLocalDateTime());
-                
-                User user = User.builder()
-                    .id(rs.getLong("u.id"))
-                    .username(rs.getString("u.username"))
-                    .email(rs.getString("u.email"))
-                    .password(rs.getString("u.password_hash"))
-                    .fullName(rs.getString("u.full_name"))
-                    .phone(rs.getString("u.phone"))
-                    .isActive(rs.getBoolean("u.is_active"))
-                    .isLocked(rs.getBoolean("u.is_locked"))
-                    .build();
-                token.setUser(user);
+            .param(hash(jwt))
+            .query((rs, rowNum) -> mapRowToToken(rs))
+            .optional()
+            .map(token -> {
+                token.setToken(jwt);
                 return token;
-            })
-            .optional();
+            });
     }
     
     public Optional<Token> findRefreshToken(String refreshToken) {
         String sql = """
-            SELECT t.id, t.token, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
+            SELECT t.id, t.token_hash, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
                    u.id, u.username, u.email, u.password_hash, 
                    u.full_name, u.phone, u.is_active, u.is_locked
             FROM tokens t
             JOIN users u ON t.user_id = u.id
-            WHERE t.token = ? AND t.token_type = 'REFRESH'
+            WHERE t.token_hash = ? AND t.token_type = 'REFRESH'
             """;
         
         return jdbcClient.sql(sql)
-            .param(refreshToken)
-            .query((rs, rowNum) -> {
-                Token token = new Token();
-                token.setId(rs.getLong("t.id"));
-                token.setToken(rs.getString("t.token"));
-                token.setType(Token.TokenType.valueOf(rs.getString("t.token_type")));
-                token.setRevoked(rs.getBoolean("t.revoked"));
-                token.setExpired(rs.getBoolean("t.expired"));
-                token.setExpiresAt(rs.getTimestamp("t.expires_at").toLocalDateTime());
-                
-                User user = User.builder()
-                    .id(rs.getLong("u.id"))
-                    .username(rs.getString("u.username"))
-                    .email(rs.getString("u.email"))
-                    .password(rs.getString("u.password_hash"))
-                    .fullName(rs.getString("u.full_name"))
-                    .phone(rs.getString("u.phone"))
-                    .isActive(rs.getBoolean("u.is_active"))
-                    .isLocked(rs.getBoolean("u.is_locked"))
-                    .build();
-                token.setUser(user);
+            .param(hash(refreshToken))
+            .query((rs, rowNum) -> mapRowToToken(rs))
+            .optional()
+            .map(token -> {
+                token.setToken(refreshToken);
                 return token;
-            })
-            .optional();
+            });
     }
     
     public List<Token> findAllValidRefreshTokensByUser(Long userId) {
         String sql = """
-            SELECT t.id, t.token, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
+            SELECT t.id, t.token_hash, t.token_type, t.revoked, t.expired, t.expires_at, t.user_id,
                    u.id, u.username, u.email, u.password_hash, 
                    u.full_name, u.phone, u.is_active, u.is_locked
             FROM tokens t
@@ -203,29 +238,93 @@ public class TokenRepository {
         
         return jdbcClient.sql(sql)
             .param(userId)
-            .query((rs, rowNum) -> {
-                Token token = new Token();
-                token.setId(rs.getLong("t.id"));
-                token.setToken(rs.getString("t.token"));
-                token.setType(Token.TokenType.valueOf(rs.getString("t.token_type")));
-                token.setRevoked(rs.getBoolean("t.revoked"));
-                token.setExpired(rs.getBoolean("t.expired"));
-                token.setExpiresAt(rs.getTimestamp("t.expires_at").toLocalDateTime());
-                
-                User user = User.builder()
-                    .id(rs.getLong("u.id"))
-                    .username(rs.getString("u.username"))
-                    .email(rs.getString("u.email"))
-                    .password(rs.getString("u.password_hash"))
-                    .fullName(rs.getString("u.full_name"))
-                    .phone(rs.getString("u.phone"))
-                    .isActive(rs.getBoolean("u.is_active"))
-                    .isLocked(rs.getBoolean("u.is_locked"))
-                    .build();
-                token.setUser(user);
-                return token;
-            })
+            .query((rs, rowNum) -> mapRowToToken(rs))
+            .list();
+    }
+    
+    // Retention: ids of tokens invalidated or past their JWT expiry before the cutoff, oldest first.
+    // Each branch walks its own index so a chunk never scans the table.
+    public List<Long> findPurgeableTokenIds(LocalDateTime cutoff, int limit) {
+        String sql = """
+            SELECT id FROM (
+                (SELECT id FROM tokens WHERE invalidated_at < ? ORDER BY invalidated_at LIMIT ?)
+                UNION
+                (SELECT id FROM tokens WHERE expires_at < ? ORDER BY expires_at LIMIT ?)
+            ) purgeable
+            ORDER BY id
+            LIMIT ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(cutoff)
+            .param(limit)
+            .param(cutoff)
+            .param(limit)
+            .param(limit)
+            .query(Long.class)
             .list();
     }
+    
+    public long countPurgeableTokens(LocalDateTime cutoff) {
+        String sql = """
+            SELECT COUNT(*)
+            FROM tokens
+            WHERE invalidated_at < ? OR expires_at < ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(cutoff)
+            .param(cutoff)
+            .query(Long.class)
+            .single();
+    }
+    
+    public int deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = "DELETE FROM tokens WHERE id IN (" + placeholders(ids.size()) + ")";
+        
+        return jdbcClient.sql(sql)
+            .params(ids)
+            .update();
+    }
+    
+    // Tokens are stored and looked up by their SHA-256 digest (BINARY(32)), never by the raw JWT
+    public static byte[] hash(String jwt) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private Token mapRowToToken(ResultSet rs) throws SQLException {
+        Token token = new Token();
+        token.setId(rs.getLong("t.id"));
+        token.setTokenHash(rs.getBytes("t.token_hash"));
+        token.setType(Token.TokenType.valueOf(rs.getString("t.token_type")));
+        token.setRevoked(rs.getBoolean("t.revoked"));
+        token.setExpired(rs.getBoolean("t.expired"));
+        token.setExpiresAt(rs.getTimestamp("t.expires_at").toLocalDateTime());
+        
+        User user = User.builder()
+            .id(rs.getLong("u.id"))
+            .username(rs.getString("u.username"))
+            .email(rs.getString("u.email"))
+            .password(rs.getString("u.password_hash"))
+            .fullName(rs.getString("u.full_name"))
+            .phone(rs.getString("u.phone"))
+            .isActive(rs.getBoolean("u.is_active"))
+            .isLocked(rs.getBoolean("u.is_locked"))
+            .build();
+        token.setUser(user);
+        return token;
+    }
 }
 
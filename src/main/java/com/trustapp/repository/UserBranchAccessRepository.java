@@ -50,6 +50,14 @@ public class UserBranchAccessRepository {
             .list();
     }
     
+    public List<Long> findUserIdsByBranchId(Long branchId) {
+        String sql = "SELECT user_id FROM user_branch_access WHERE branch_id = ?";
+        return jdbcClient.sql(sql)
+            .param(branchId)
+            .query(Long.class)
+            .list();
+    }
+    
     public void assignBranches(Long userId, List<Long> branchIds, Long grantedBy) {
         // Delete existing branch access
         String deleteSql = "DELETE FROM user_branch_access WHERE user_id = ?";
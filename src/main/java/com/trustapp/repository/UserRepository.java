@@ -88,10 +88,12 @@ public class UserRepository {
             .optional();
     }
     
+    // isLocked also covers an unexpired login throttle lockout, so it is rejected before the password is checked
     public Optional<com.trustapp.model.User> findByEmailForAuthentication(String email) {
         String sql = """
             SELECT id, username, email, password_hash AS password, full_name AS fullName, 
-                   phone, is_active AS isActive, is_locked AS isLocked
+                   phone, is_active AS isActive,
+                   is_locked OR COALESCE(locked_until > CURRENT_TIMESTAMP, FALSE) AS isLocked
             FROM users
             WHERE email = ? AND is_active = TRUE
             """;
@@ -152,6 +154,20 @@ public class UserRepository {
             .update();
     }
     
+    // Transparent rehash on login (e.g. BCrypt cost raised); not a user-initiated password change
+    public int updatePasswordHash(Long userId, String passwordHash) {
+        String sql = """
+            UPDATE users
+            SET password_hash = ?
+            WHERE id = ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(passwordHash)
+            .param(userId)
+            .update();
+    }
+    
     public int updatePassword(Long userId, String passwordHash) {
         String sql = """
             UPDATE users
@@ -182,6 +198,34 @@ public class UserRepository {
             .update();
     }
     
+    // Written asynchronously by LoginThrottle when an account's attempts are exhausted. The expiry is
+    // computed on the database clock and never shortens a lockout that is already running.
+    public int lockTemporarily(String email, long minutes) {
+        String sql = """
+            UPDATE users
+            SET locked_until = GREATEST(COALESCE(locked_until, CURRENT_TIMESTAMP),
+                                        CURRENT_TIMESTAMP + INTERVAL ? MINUTE)
+            WHERE email = ? AND is_active = TRUE
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(minutes)
+            .param(email)
+            .update();
+    }
+    
+    public int unlock(Long userId) {
+        String sql = """
+            UPDATE users
+            SET failed_login_attempts = 0, is_locked = FALSE, locked_until = NULL
+            WHERE id = ?
+            """;
+        
+        return jdbcClient.sql(sql)
+            .param(userId)
+            .update();
+    }
+    
     public int resetFailedLoginAttempts(Long userId) {
         String sql = """
             UPDATE users
@@ -14,6 +14,7 @@ import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
 import com.trustapp.model.Token;
 import com.trustapp.model.User;
+import com.trustapp.model.VerifiedToken;
 import com.trustapp.repository.RoleRepository;
 import com.trustapp.repository.TokenRepository;
 import com.trustapp.repository.UserRepository;
@@ -38,6 +39,9 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final TokenRepository tokenRepository;
+    private final TokenStatusCache tokenStatusCache;
+    private final CurrentUserContext currentUserContext;
+    private final LoginThrottle loginThrottle;
     
     public AuthenticationService(
             UserRepository userRepository,
@@ -46,7 +50,10 @@ public class AuthenticationService {
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
             JwtService jwtService,
-            TokenRepository tokenRepository) {
+            TokenRepository tokenRepository,
+            TokenStatusCache tokenStatusCache,
+            CurrentUserContext currentUserContext,
+            LoginThrottle loginThrottle) {
         this.userRepository = userRepository;
         this.userRoleRepository = userRoleRepository;
         this.roleRepository = roleRepository;
@@ -54,6 +61,9 @@ public class AuthenticationService {
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.tokenRepository = tokenRepository;
+        this.tokenStatusCache = tokenStatusCache;
+        this.currentUserContext = currentUserContext;
+        this.loginThrottle = loginThrottle;
     }
     
     @Transactional
@@ -98,15 +108,19 @@ public class AuthenticationService {
             .build();
     }
     
-    public LoginResponseDTO authenticate(LoginUserDTO loginUserDTO) {
+    public LoginResponseDTO authenticate(LoginUserDTO loginUserDTO, String clientIp) {
         String email = loginUserDTO.getEmail();
         
+        // Reject login storms before any BCrypt work or database access
+        loginThrottle.acquire(email, clientIp);
+        
         authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(
                 email,
                 loginUserDTO.getPassword()
             )
         );
+        loginThrottle.recordSuccess(email);
         
         User authenticatedUser = userRepository.findByEmailForAuthentication(email)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -172,8 +186,9 @@ public class AuthenticationService {
     public RefreshTokenResponseDTO refreshToken(RefreshTokenRequestDTO request) {
         final String refreshToken = request.getRefreshToken();
         
-        // Extract username from refresh token
-        final String userEmail = jwtService.extractUsername(refreshToken);
+        // Parse and verify the refresh token once
+        final VerifiedToken verifiedRefreshToken = jwtService.verify(refreshToken);
+        final String userEmail = verifiedRefreshToken.subject();
         
         if (userEmail == null) {
             throw new RuntimeException("Invalid refresh token");
@@ -192,7 +207,7 @@ public class AuthenticationService {
         }
         
         // Validate token
-        if (!jwtService.isTokenValid(refreshToken, user)) {
+        if (!jwtService.isTokenValid(verifiedRefreshToken, user)) {
             throw new RuntimeException("Invalid refresh token");
         }
         
@@ -213,6 +228,8 @@ public class AuthenticationService {
             .build();
     }
     
+    // Hot path for services: id and profile fields come from the principal, no database access.
+    // Timestamps, roles and branch access are not populated; use getCurrentUserProfile() for those.
     public UserDTO getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
@@ -220,6 +237,17 @@ public class AuthenticationService {
             throw new RuntimeException("User not authenticated");
         }
         
+        return currentUserContext.find()
+            .orElseGet(this::getCurrentUserProfile);
+    }
+    
+    public UserDTO getCurrentUserProfile() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        if (authentication == null || authentication.getPrincipal() == null) {
+            throw new RuntimeException("User not authenticated");
+        }
+        
         // Get email from authentication principal (UserDetails.getUsername() returns email)
         String email = authentication.getName();
         
@@ -240,6 +268,7 @@ public class AuthenticationService {
         });
         
         tokenRepository.revokeAllUserTokens(validAccessTokens);
+        tokenStatusCache.evictAll(validAccessTokens);
     }
     
     private void validateRoles(List<Long> roleIds) {
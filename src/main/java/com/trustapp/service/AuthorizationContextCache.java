@@ -0,0 +1,85 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trustapp.model.AuthorizationContext;
+import com.trustapp.repository.RoleRepository;
+import com.trustapp.repository.UserBranchAccessRepository;
+import com.trustapp.repository.UserRoleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class AuthorizationContextCache {
+    
+    private final RoleRepository roleRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final UserBranchAccessRepository userBranchAccessRepository;
+    private final Cache<Long, AuthorizationContext> cache;
+    
+    public AuthorizationContextCache(RoleRepository roleRepository,
+                                     UserRoleRepository userRoleRepository,
+                                     UserBranchAccessRepository userBranchAccessRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.authorization-cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.authorization-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.roleRepository = roleRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.userBranchAccessRepository = userBranchAccessRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authorizationContext");
+    }
+    
+    public AuthorizationContext get(Long userId) {
+        return cache.get(userId, this::load);
+    }
+    
+    // Must be called after any change to a user's roles or branch access. Inside a transaction the
+    // entry is dropped again after completion, so a concurrent reader cannot re-cache pre-commit rows.
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+    
+    // Role definitions changed (e.g. a role's code), so any snapshot's super-user flag may be stale
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+    
+    private AuthorizationContext load(Long userId) {
+        List<Long> roleIds = userRoleRepository.findRoleIdsByUserId(userId);
+        boolean superUser = roleRepository.findByCode("SUPER_USER")
+            .map(role -> roleIds.contains(role.getId()))
+            .orElse(false);
+        List<Long> branchIds = userBranchAccessRepository.findBranchIdsByUserId(userId);
+        return new AuthorizationContext(userId, superUser, roleIds, branchIds);
+    }
+}
+
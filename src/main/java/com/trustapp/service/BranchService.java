@@ -12,9 +12,7 @@ import com.trustapp.exception.ForbiddenException;
 import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
 import com.trustapp.repository.BranchRepository;
-import com.trustapp.repository.RoleRepository;
-import com.trustapp.repository.UserBranchAccessRepository;
-import com.trustapp.repository.UserRoleRepository;
+import com.trustapp.repository.PagedResult;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,46 +24,38 @@ public class BranchService {
     
     private final BranchRepository branchRepository;
     private final AuthenticationService authenticationService;
-    private final UserRoleRepository userRoleRepository;
-    private final RoleRepository roleRepository;
-    private final UserBranchAccessRepository userBranchAccessRepository;
+    private final AuthorizationContextCache authorizationContextCache;
+    private final ReferenceDataCache referenceDataCache;
+    private final BranchStatisticsService branchStatisticsService;
+    private final BranchStatisticsCache branchStatisticsCache;
     
     public BranchService(BranchRepository branchRepository, 
                         AuthenticationService authenticationService,
-                        UserRoleRepository userRoleRepository,
-                        RoleRepository roleRepository,
-                        UserBranchAccessRepository userBranchAccessRepository) {
+                        AuthorizationContextCache authorizationContextCache,
+                        ReferenceDataCache referenceDataCache,
+                        BranchStatisticsService branchStatisticsService,
+                        BranchStatisticsCache branchStatisticsCache) {
         this.branchRepository = branchRepository;
         this.authenticationService = authenticationService;
-        this.userRoleRepository = userRoleRepository;
-        this.roleRepository = roleRepository;
-        this.userBranchAccessRepository = userBranchAccessRepository;
+        this.authorizationContextCache = authorizationContextCache;
+        this.referenceDataCache = referenceDataCache;
+        this.branchStatisticsService = branchStatisticsService;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
     private boolean isSuperUser(Long userId) {
-        // Get SUPER_USER role
-        var superUserRole = roleRepository.findByCode("SUPER_USER");
-        if (superUserRole.isEmpty()) {
-            return false;
-        }
-        
-        Long superUserRoleId = superUserRole.get().getId();
-        List<Long> roleIds = userRoleRepository.findRoleIdsByUserId(userId);
-        return roleIds.contains(superUserRoleId);
+        return authorizationContextCache.get(userId).isSuperUser();
     }
     
     public PageResponseDTO<BranchDTO> getAllBranches(Boolean includeInactive, String city, String state, 
                                                       String search, Integer page, Integer size, 
-                                                      String sortBy, String sortDir) {
+                                                      String sortBy, String sortDir, Boolean withTotal) {
         // Get authenticated user
         UserDTO currentUser = authenticationService.getCurrentUser();
         Long userId = currentUser.getId();
         
-        // Check if user is super user
-        boolean isSuper = isSuperUser(userId);
-        
         // Get accessible branch IDs (null for super users means all branches)
-        List<Long> accessibleBranchIds = isSuper ? null : userBranchAccessRepository.findBranchIdsByUserId(userId);
+        List<Long> accessibleBranchIds = authorizationContextCache.get(userId).getAccessibleBranchIds();
         
         // Set defaults
         boolean includeInactiveFlag = includeInactive != null && includeInactive;
@@ -74,32 +64,25 @@ public class BranchService {
         String sortField = sortBy != null ? sortBy : "name";
         String sortDirection = sortDir != null ? sortDir : "ASC";
         
-        // Get branches with filters
-        List<BranchDTO> branches = branchRepository.findAll(
+        // Page and total come back in one statement; withTotal=false skips counting altogether
+        boolean withTotalFlag = withTotal == null || withTotal;
+        PagedResult<BranchDTO> result = branchRepository.findAll(
             includeInactiveFlag, city, state, search, accessibleBranchIds, 
-            pageNum, pageSize, sortField, sortDirection
+            pageNum, pageSize, sortField, sortDirection, withTotalFlag
         );
-        
-        // Get total count
-        long totalElements = branchRepository.count(
-            includeInactiveFlag, city, state, search, accessibleBranchIds
-        );
-        
-        // Calculate pagination metadata
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        boolean isFirst = pageNum == 0;
-        boolean isLast = pageNum >= totalPages - 1;
-        int numberOfElements = branches.size();
+        List<BranchDTO> branches = result.content();
         
         PageResponseDTO<BranchDTO> pageResponse = new PageResponseDTO<>();
         pageResponse.setContent(branches);
-        pageResponse.setTotalElements(totalElements);
-        pageResponse.setTotalPages(totalPages);
+        if (result.total() != null) {
+            pageResponse.setTotalElements(result.total());
+            pageResponse.setTotalPages((int) Math.ceil((double) result.total() / pageSize));
+        }
         pageResponse.setSize(pageSize);
         pageResponse.setNumber(pageNum);
-        pageResponse.setFirst(isFirst);
-        pageResponse.setLast(isLast);
-        pageResponse.setNumberOfElements(numberOfElements);
+        pageResponse.setFirst(pageNum == 0);
+        pageResponse.setLast(!result.hasNext());
+        pageResponse.setNumberOfElements(branches.size());
         
         return pageResponse;
     }
@@ -118,7 +101,7 @@ public class BranchService {
         
         // If not super user, check branch access
         if (!isSuper) {
-            boolean hasAccess = userBranchAccessRepository.hasAccessToBranch(userId, id);
+            boolean hasAccess = authorizationContextCache.get(userId).hasAccessToBranch(id);
             if (!hasAccess) {
                 throw new ForbiddenException("Access denied. You do not have permission to access this branch.");
             }
@@ -200,6 +183,8 @@ public class BranchService {
         branchDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingBranch.getIsActive());
         
         branchRepository.update(branchDTO, updaterId);
+        referenceDataCache.invalidateBranch(id);
+        branchStatisticsCache.invalidateBranch(id);
         return getBranchById(id);
     }
     
@@ -223,6 +208,8 @@ public class BranchService {
         // Delete will check for active transactions (donations, expenses, events, or users) and throw exception if they exist
         try {
             branchRepository.delete(id, deleterId);
+            referenceDataCache.invalidateBranch(id);
+            branchStatisticsCache.invalidateBranch(id);
         } catch (IllegalStateException e) {
             // Convert IllegalStateException to ValidationException for proper error handling
             throw new ValidationException(e.getMessage());
@@ -232,10 +219,11 @@ public class BranchService {
     public BranchStatisticsDTO getBranchStatistics(Long id, LocalDate fromDate, LocalDate toDate) {
         // Check if branch exists and user has access (or is super user)
         // This will throw exception if branch doesn't exist or user doesn't have access
-        getBranchById(id);
+        BranchDTO branch = getBranchById(id);
         
-        // Get statistics
-        return branchRepository.getBranchStatistics(id, fromDate, toDate);
+        // Sections run concurrently outside any transaction of the caller; complete results are cached
+        return branchStatisticsCache.get(id, fromDate, toDate,
+            () -> branchStatisticsService.getStatistics(branch, fromDate, toDate));
     }
     
     public List<BranchDropdownDTO> getAllBranchesForDropdown() {
@@ -243,9 +231,7 @@ public class BranchService {
         Long userId = currentUser.getId();
         
         // Get accessible branch IDs (null for super users, list for regular users)
-        List<Long> accessibleBranchIds = isSuperUser(userId) 
-            ? null 
-            : userBranchAccessRepository.findBranchIdsByUserId(userId);
+        List<Long> accessibleBranchIds = authorizationContextCache.get(userId).getAccessibleBranchIds();
         
         // If user has no accessible branches, return empty list
         if (accessibleBranchIds != null && accessibleBranchIds.isEmpty()) {
@@ -0,0 +1,183 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.trustapp.dto.BranchStatisticsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Result cache for branch statistics, keyed by branch and date range.
+// Writes that change a branch's numbers invalidate only that branch's entries, found through a per-branch
+// key index, so a write never scans or locks the whole cache. Invalidation is local to this node: writes made
+// on other nodes show up once an entry expires, after ttl-seconds for open ranges and closed-ttl-seconds for
+// ranges that ended before today. Partial results are not cached.
+// Cached DTOs are shared and must not be modified by callers.
+@Component
+public class BranchStatisticsCache {
+    
+    private final Cache<Key, BranchStatisticsDTO> cache;
+    private final Map<Long, Set<Key>> keysByBranch = new ConcurrentHashMap<>();
+    
+    // Invalidation counts, per branch and for invalidateAll; both only grow, so their sum changes on
+    // every invalidation that concerns a branch, and a load that started before one is not cached
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    
+    public BranchStatisticsCache(MeterRegistry meterRegistry,
+                                 @Value("${app.branch-statistics.cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${app.branch-statistics.cache.ttl-seconds:60}") long ttlSeconds,
+                                 @Value("${app.branch-statistics.cache.closed-ttl-seconds:21600}") long closedTtlSeconds) {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long closedTtlNanos = Duration.ofSeconds(closedTtlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<Key, BranchStatisticsDTO>() {
+                @Override
+                public long expireAfterCreate(Key key, BranchStatisticsDTO value, long currentTime) {
+                    return key.isClosed() ? closedTtlNanos : ttlNanos;
+                }
+                
+                @Override
+                public long expireAfterUpdate(Key key, BranchStatisticsDTO value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+                
+                @Override
+                public long expireAfterRead(Key key, BranchStatisticsDTO value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            // Runs inside the removing operation, so the index never drops a key that was re-cached after it
+            .evictionListener((Key key, BranchStatisticsDTO value, RemovalCause cause) -> unindex(key))
+            .recordStats()
+            .build();
+        
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=branchStatistics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "branchStatistics");
+    }
+    
+    public BranchStatisticsDTO get(Long branchId, LocalDate fromDate, LocalDate toDate, Supplier<BranchStatisticsDTO> loader) {
+        Key key = new Key(branchId, fromDate, toDate);
+        BranchStatisticsDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long loadVersion = version(branchId);
+        BranchStatisticsDTO loaded = loader.get();
+        if (!Boolean.TRUE.equals(loaded.getPartial())) {
+            put(key, loaded, loadVersion);
+        }
+        return loaded;
+    }
+    
+    // Call from inside the write's transaction; entries are dropped again after completion, so a
+    // reader cannot re-cache numbers computed before the commit in between
+    public void invalidateBranch(Long branchId) {
+        if (branchId != null) {
+            invalidateBranches(Set.of(branchId));
+        }
+    }
+    
+    public void invalidateBranches(Collection<Long> branchIds) {
+        Set<Long> ids = branchIds.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids);
+                }
+            });
+        }
+    }
+    
+    // For changes that show up in every branch's statistics, e.g. a renamed payment mode
+    public void invalidateAll() {
+        evictAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAll();
+                }
+            });
+        }
+    }
+    
+    private long version(Long branchId) {
+        return epoch.get() + versionOf(branchId).get();
+    }
+    
+    private AtomicLong versionOf(Long branchId) {
+        return versions.computeIfAbsent(branchId, id -> new AtomicLong());
+    }
+    
+    // Evictions bump the version before removing entries and puts check it after inserting, so an entry put
+    // concurrently with an invalidation is either removed by it or removed again here
+    private void put(Key key, BranchStatisticsDTO value, long loadVersion) {
+        if (version(key.branchId()) != loadVersion) {
+            return;
+        }
+        cache.put(key, value);
+        keysByBranch.compute(key.branchId(), (id, keys) -> {
+            Set<Key> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            indexed.add(key);
+            return indexed;
+        });
+        if (version(key.branchId()) != loadVersion) {
+            cache.invalidate(key);
+        }
+    }
+    
+    private void evict(Set<Long> branchIds) {
+        for (Long branchId : branchIds) {
+            versionOf(branchId).incrementAndGet();
+            Set<Key> keys = keysByBranch.remove(branchId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+    
+    private void evictAll() {
+        epoch.incrementAndGet();
+        keysByBranch.clear();
+        cache.invalidateAll();
+    }
+    
+    private void unindex(Key key) {
+        keysByBranch.computeIfPresent(key.branchId(), (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+    
+    private record Key(Long branchId, LocalDate fromDate, LocalDate toDate) {
+        
+        // The whole range is in the past, so only a backdated write can still change it
+        boolean isClosed() {
+            return toDate != null && toDate.isBefore(LocalDate.now());
+        }
+    }
+}
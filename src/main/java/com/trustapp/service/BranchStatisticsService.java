@@ -0,0 +1,216 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.BranchDTO;
+import com.trustapp.dto.BranchStatisticsDTO;
+import com.trustapp.exception.ServiceBusyException;
+import com.trustapp.repository.BranchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs the independent branch statistics queries concurrently, so the endpoint takes as long as the
+// slowest section rather than the sum of all of them. Each section is one statement in its own
+// read-only transaction on its own pooled connection; the pool size caps how many connections
+// statistics requests can hold at once. Sections still running at the request deadline are cancelled
+// (the transaction timeout also cancels the statement on the server) and the response is returned
+// with partial = true and the missing sections listed.
+@Slf4j
+@Service
+public class BranchStatisticsService implements DisposableBean {
+    
+    private static final String DONATIONS = "donations";
+    private static final String PAYMENT_MODES = "donationsByPaymentMode";
+    private static final String EVENTS = "events";
+    private static final String USERS = "users";
+    private static final String INCOMING_TRANSFERS = "incomingTransfers";
+    private static final String OUTGOING_TRANSFERS = "outgoingTransfers";
+    
+    private final BranchRepository branchRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long deadlineMillis;
+    
+    public BranchStatisticsService(BranchRepository branchRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.branch-statistics.threads:6}") int threads,
+                                   @Value("${app.branch-statistics.queue-capacity:60}") int queueCapacity,
+                                   @Value("${app.branch-statistics.deadline-ms:3000}") long deadlineMillis) {
+        this.branchRepository = branchRepository;
+        this.meterRegistry = meterRegistry;
+        this.deadlineMillis = deadlineMillis;
+        
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadlineMillis + 999)));
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "branch-statistics-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "branchStatistics");
+    }
+    
+    public BranchStatisticsDTO getStatistics(BranchDTO branch, LocalDate fromDate, LocalDate toDate) {
+        Long branchId = branch.getId();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        
+        Map<String, Future<?>> sections = new LinkedHashMap<>();
+        try {
+            sections.put(DONATIONS, submit(DONATIONS, () -> branchRepository.findDonationStatistics(branchId, fromDate, toDate)));
+            sections.put(PAYMENT_MODES, submit(PAYMENT_MODES, () -> branchRepository.findPaymentModeStatistics(branchId, fromDate, toDate)));
+            sections.put(EVENTS, submit(EVENTS, () -> branchRepository.findEventStatistics(branchId, fromDate, toDate)));
+            sections.put(USERS, submit(USERS, () -> branchRepository.findUserStatistics(branchId)));
+            sections.put(INCOMING_TRANSFERS, submit(INCOMING_TRANSFERS, () -> branchRepository.sumIncomingTransfers(branchId, fromDate, toDate)));
+            sections.put(OUTGOING_TRANSFERS, submit(OUTGOING_TRANSFERS, () -> branchRepository.sumOutgoingTransfers(branchId, fromDate, toDate)));
+        } catch (RejectedExecutionException e) {
+            sections.values().forEach(future -> future.cancel(true));
+            meterRegistry.counter("branch.statistics.rejected").increment();
+            throw new ServiceBusyException("Too many concurrent statistics requests, please retry shortly");
+        }
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> section : sections.entrySet()) {
+            Object result = await(section.getKey(), section.getValue(), deadline);
+            if (result != null) {
+                results.put(section.getKey(), result);
+            } else {
+                unavailable.add(section.getKey());
+            }
+        }
+        
+        return assemble(branch, results, unavailable);
+    }
+    
+    private <T> Future<T> submit(String section, Supplier<T> query) {
+        return executor.submit(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "failure";
+            try {
+                T result = readOnlyTransaction.execute(status -> query.get());
+                outcome = "success";
+                return result;
+            } finally {
+                sample.stop(meterRegistry.timer("branch.statistics.section", "section", section, "outcome", outcome));
+            }
+        });
+    }
+    
+    // Null when the section missed the deadline; a failed query fails the request as before
+    private Object await(String section, Future<?> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            meterRegistry.counter("branch.statistics.timeouts", "section", section).increment();
+            log.warn("Branch statistics section {} missed the {} ms deadline", section, deadlineMillis);
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Statistics request was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static BranchStatisticsDTO assemble(BranchDTO branch, Map<String, Object> results, List<String> unavailable) {
+        BranchStatisticsDTO stats = new BranchStatisticsDTO();
+        stats.setBranch(new BranchStatisticsDTO.BranchInfo(branch.getId(), branch.getCode(), branch.getName()));
+        
+        BranchStatisticsDTO.DonationStatistics donationStats = (BranchStatisticsDTO.DonationStatistics) results.get(DONATIONS);
+        if (donationStats != null) {
+            donationStats.setByPaymentMode((List<BranchStatisticsDTO.PaymentModeStat>) results.get(PAYMENT_MODES));
+        }
+        stats.setDonations(donationStats);
+        
+        // Expense and voucher tables do not exist yet
+        BranchStatisticsDTO.ExpenseStatistics expenseStats = new BranchStatisticsDTO.ExpenseStatistics();
+        expenseStats.setTotalCount(0L);
+        expenseStats.setTotalAmount(BigDecimal.ZERO);
+        expenseStats.setAverageAmount(BigDecimal.ZERO);
+        stats.setExpenses(expenseStats);
+        
+        BranchStatisticsDTO.VoucherStatistics voucherStats = new BranchStatisticsDTO.VoucherStatistics();
+        voucherStats.setTotalCount(0L);
+        voucherStats.setTotalAmount(BigDecimal.ZERO);
+        voucherStats.setAverageAmount(BigDecimal.ZERO);
+        stats.setVouchers(voucherStats);
+        
+        stats.setEvents((BranchStatisticsDTO.EventStatistics) results.get(EVENTS));
+        stats.setUsers((BranchStatisticsDTO.UserStatistics) results.get(USERS));
+        
+        if (donationStats != null) {
+            BigDecimal totalIncome = donationStats.getTotalAmount();
+            BigDecimal totalExpenses = expenseStats.getTotalAmount();
+            BigDecimal netAmount = totalIncome.subtract(totalExpenses);
+            BigDecimal profitMargin = totalIncome.compareTo(BigDecimal.ZERO) > 0
+                ? netAmount.divide(totalIncome, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+            
+            BranchStatisticsDTO.FinancialSummary financialSummary = new BranchStatisticsDTO.FinancialSummary();
+            financialSummary.setTotalIncome(totalIncome);
+            financialSummary.setTotalExpenses(totalExpenses);
+            financialSummary.setNetAmount(netAmount);
+            financialSummary.setProfitMargin(profitMargin);
+            stats.setFinancialSummary(financialSummary);
+        }
+        
+        BigDecimal totalIncoming = (BigDecimal) results.get(INCOMING_TRANSFERS);
+        BigDecimal totalOutgoing = (BigDecimal) results.get(OUTGOING_TRANSFERS);
+        if (totalIncoming != null || totalOutgoing != null) {
+            BranchStatisticsDTO.InterBranchTransferStatistics transferStats = new BranchStatisticsDTO.InterBranchTransferStatistics();
+            transferStats.setTotalIncoming(totalIncoming);
+            transferStats.setTotalOutgoing(totalOutgoing);
+            if (totalIncoming != null && totalOutgoing != null) {
+                transferStats.setNetTransfer(totalIncoming.subtract(totalOutgoing));
+            }
+            stats.setInterBranchTransfers(transferStats);
+        }
+        
+        stats.setPartial(!unavailable.isEmpty());
+        stats.setUnavailableSections(unavailable);
+        return stats;
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.UserDTO;
+import com.trustapp.model.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+// Request-scoped view of the authenticated user, built once per request from the User
+// principal that JwtAuthenticationFilter loaded with the token; never touches the database
+@Component
+@RequestScope
+public class CurrentUserContext {
+    
+    private UserDTO currentUser;
+    
+    // Empty when the principal is not a loaded User (e.g. a plain UserDetails from another auth path)
+    public Optional<UserDTO> find() {
+        if (currentUser == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User user) {
+                currentUser = toUserDTO(user);
+            }
+        }
+        return Optional.ofNullable(currentUser);
+    }
+    
+    private UserDTO toUserDTO(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getAccountUsername());
+        dto.setEmail(user.getEmail());
+        dto.setFullName(user.getFullName());
+        dto.setPhone(user.getPhone());
+        dto.setIsActive(user.getIsActive());
+        dto.setIsLocked(user.getIsLocked());
+        return dto;
+    }
+}
+
@@ -0,0 +1,317 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.DonationDTO;
+import com.trustapp.exception.ValidationException;
+import com.trustapp.repository.DonationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes donation exports straight from the streaming query in DonationRepository.streamAll.
+// Only one row is held at a time: CSV goes out through a small buffer as rows arrive, XLSX keeps a
+// window of rows in memory and spills the rest to a compressed temp file until the workbook is written.
+// Nothing of an XLSX export reaches the client before then, so a disconnect cannot cancel it; it is
+// capped at xlsx-max-rows instead and rejected beyond that before any byte is sent.
+@Slf4j
+@Service
+public class DonationExportService {
+    
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String contentType() {
+            return contentType;
+        }
+        
+        public String extension() {
+            return extension;
+        }
+        
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new ValidationException("Export format must be one of: csv, xlsx");
+        }
+    }
+    
+    private static final List<String> HEADERS = List.of(
+        "Receipt Number", "Donation Date", "Donor Name", "Donor Address", "PAN Number", "Donor Phone",
+        "Donor Email", "Amount", "Payment Mode", "Purpose", "Sub-Category", "Event", "Branch Code",
+        "Branch Name", "Notes", "Receipt Generated", "Active", "Created At"
+    );
+    
+    private static final int XLSX_ROW_WINDOW = 100;
+    
+    private final DonationRepository donationRepository;
+    private final MeterRegistry meterRegistry;
+    private final int xlsxMaxRows;
+    
+    public DonationExportService(DonationRepository donationRepository, MeterRegistry meterRegistry,
+                                 @Value("${app.donation-export.xlsx-max-rows:100000}") int xlsxMaxRows) {
+        this.donationRepository = donationRepository;
+        this.meterRegistry = meterRegistry;
+        this.xlsxMaxRows = xlsxMaxRows;
+    }
+    
+    // Takes the same filters as the donation listing. For CSV a client disconnect surfaces as an IOException
+    // on the next write; the query is then cancelled and the export ends quietly.
+    public void export(Format format, Long branchId, Long purposeId, Long eventId, Long paymentModeId,
+                       LocalDate fromDate, LocalDate toDate, String donorName, String panNumber,
+                       String receiptNumber, String search, Boolean includeInactive, OutputStream out) {
+        boolean includeInactiveFlag = includeInactive != null && includeInactive;
+        AtomicLong rows = new AtomicLong();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "completed";
+        
+        try {
+            Exporter exporter = format == Format.XLSX ? new XlsxExporter(out, xlsxMaxRows) : new CsvExporter(out);
+            try {
+                donationRepository.streamAll(branchId, purposeId, eventId, paymentModeId,
+                    fromDate, toDate, donorName, panNumber, receiptNumber, search, includeInactiveFlag,
+                    donation -> {
+                        try {
+                            exporter.write(values(donation));
+                            rows.incrementAndGet();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                exporter.finish();
+            } finally {
+                exporter.close();
+            }
+        } catch (UncheckedIOException e) {
+            outcome = "cancelled";
+            log.info("Donation export cancelled after {} rows: {}", rows.get(), e.getCause().getMessage());
+        } catch (IOException e) {
+            outcome = "cancelled";
+            log.info("Donation export cancelled after {} rows: {}", rows.get(), e.getMessage());
+        } catch (ValidationException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (DataAccessException e) {
+            outcome = "failure";
+            log.error("Donation export failed after {} rows: {}", rows.get(), e.getMessage());
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("donation.export",
+                "format", format.extension(), "outcome", outcome));
+            meterRegistry.counter("donation.export.rows", "format", format.extension()).increment(rows.get());
+        }
+    }
+    
+    private static Object[] values(DonationDTO donation) {
+        return new Object[] {
+            donation.getReceiptNumber(),
+            donation.getDonationDate(),
+            donation.getDonorName(),
+            donation.getDonorAddress(),
+            donation.getPanNumber(),
+            donation.getDonorPhone(),
+            donation.getDonorEmail(),
+            donation.getAmount(),
+            donation.getPaymentMode() != null ? donation.getPaymentMode().getName() : null,
+            donation.getPurpose() != null ? donation.getPurpose().getName() : null,
+            donation.getSubCategory() != null ? donation.getSubCategory().getName() : null,
+            donation.getEvent() != null ? donation.getEvent().getName() : null,
+            donation.getBranch() != null ? donation.getBranch().getCode() : null,
+            donation.getBranch() != null ? donation.getBranch().getName() : null,
+            donation.getNotes(),
+            donation.getReceiptGenerated(),
+            donation.getIsActive(),
+            donation.getCreatedAt()
+        };
+    }
+    
+    private interface Exporter {
+        void write(Object[] values) throws IOException;
+        
+        void finish() throws IOException;
+        
+        void close() throws IOException;
+    }
+    
+    static final class CsvExporter implements Exporter {
+        
+        private final Writer writer;
+        
+        CsvExporter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            // BOM so spreadsheet tools read non-ASCII donor names as UTF-8
+            writer.write('\uFEFF');
+            write(HEADERS.toArray());
+        }
+        
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(format(values[i]));
+            }
+            writer.write("\r\n");
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+        
+        @Override
+        public void close() {
+            // The servlet container owns the response stream
+        }
+        
+        private static String format(Object value) {
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof BigDecimal amount) {
+                return amount.toPlainString();
+            }
+            if (value instanceof String text) {
+                return quote(text);
+            }
+            return value.toString();
+        }
+        
+        // RFC 4180 quoting; text starting with a formula character (or a tab or carriage return, which
+        // some tools strip before one) is prefixed with ' so spreadsheet tools do not evaluate donor-supplied values
+        static String quote(String text) {
+            if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+    
+    private static final class XlsxExporter implements Exporter {
+        
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        
+        private final OutputStream out;
+        private final int maxRows;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle dateStyle;
+        private final CellStyle dateTimeStyle;
+        private final CellStyle amountStyle;
+        private Sheet sheet;
+        private int rowIndex;
+        private int dataRows;
+        
+        private XlsxExporter(OutputStream out, int maxRows) {
+            this.out = out;
+            this.maxRows = maxRows;
+            this.workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+            workbook.setCompressTempFiles(true);
+            
+            short dateFormat = workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd");
+            short dateTimeFormat = workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss");
+            short amountFormat = workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00");
+            this.dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(dateFormat);
+            this.dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(dateTimeFormat);
+            this.amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(amountFormat);
+            
+            newSheet();
+        }
+        
+        @Override
+        public void write(Object[] values) {
+            // Nothing has been sent yet, so the rejection still becomes a normal 400 response
+            if (dataRows++ == maxRows) {
+                throw new ValidationException("XLSX export is limited to " + maxRows + " rows; narrow the filters or use format=csv");
+            }
+            // A sheet holds at most 1,048,576 rows; continue on a new one
+            if (rowIndex == MAX_ROWS) {
+                newSheet();
+            }
+            writeRow(values);
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            // Deletes the temp files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+        
+        private void newSheet() {
+            sheet = workbook.createSheet(String.format(Locale.ROOT, "Donations %d", workbook.getNumberOfSheets() + 1));
+            rowIndex = 0;
+            writeRow(HEADERS.toArray());
+        }
+        
+        private void writeRow(Object[] values) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof BigDecimal amount) {
+                    cell.setCellValue(amount.doubleValue());
+                    cell.setCellStyle(amountStyle);
+                } else if (value instanceof LocalDateTime dateTime) {
+                    cell.setCellValue(dateTime);
+                    cell.setCellStyle(dateTimeStyle);
+                } else if (value instanceof LocalDate date) {
+                    cell.setCellValue(date);
+                    cell.setCellStyle(dateStyle);
+                } else if (value instanceof Boolean flag) {
+                    cell.setCellValue(flag);
+                } else {
+                    cell.setCellValue(value.toString());
+                }
+            }
+        }
+    }
+}
@@ -17,9 +17,11 @@ import java.util.List;
 public class DonationPurposeService {
     
     private final DonationPurposeRepository donationPurposeRepository;
+    private final ReferenceDataCache referenceDataCache;
     
-    public DonationPurposeService(DonationPurposeRepository donationPurposeRepository) {
+    public DonationPurposeService(DonationPurposeRepository donationPurposeRepository, ReferenceDataCache referenceDataCache) {
         this.donationPurposeRepository = donationPurposeRepository;
+        this.referenceDataCache = referenceDataCache;
     }
     
     public List<DonationPurposeDTO> getAllDonationPurposes(boolean includeInactive) {
@@ -64,6 +66,7 @@ public class DonationPurposeService {
         purposeDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingPurpose.getIsActive());
         
         donationPurposeRepository.update(purposeDTO, userId);
+        referenceDataCache.invalidatePurpose(id);
         return getDonationPurposeById(id);
     }
     
@@ -75,6 +78,7 @@ public class DonationPurposeService {
         // Delete will check for sub-categories and throw exception if they exist
         try {
             donationPurposeRepository.delete(id, userId);
+            referenceDataCache.invalidatePurpose(id);
         } catch (IllegalStateException e) {
             // Convert IllegalStateException to ValidationException for proper error handling
             throw new ValidationException(e.getMessage());
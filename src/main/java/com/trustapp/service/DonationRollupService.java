@@ -0,0 +1,120 @@
+package com.trustapp.service;
+
+import com.trustapp.repository.DonationRollupRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps donation_daily_rollups honest. The rollups are maintained with every donation write, so this
+// only has to catch drift (manual SQL fixes, a bug, a write that bypassed the repository): it compares
+// each window against an aggregate of donations and rebuilds the days that differ, one short
+// transaction per day. The nightly run covers recent days; the full run walks the whole history.
+@Slf4j
+@Service
+public class DonationRollupService {
+    
+    private final DonationRollupRepository donationRollupRepository;
+    private final BranchStatisticsCache branchStatisticsCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    private final boolean enabled;
+    private final int verifyDays;
+    private final int chunkDays;
+    private final long chunkPauseMillis;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    public DonationRollupService(DonationRollupRepository donationRollupRepository,
+                                 BranchStatisticsCache branchStatisticsCache,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.donation-rollup.verify-enabled:true}") boolean enabled,
+                                 @Value("${app.donation-rollup.verify-days:35}") int verifyDays,
+                                 @Value("${app.donation-rollup.chunk-days:31}") int chunkDays,
+                                 @Value("${app.donation-rollup.chunk-pause-ms:200}") long chunkPauseMillis) {
+        this.donationRollupRepository = donationRollupRepository;
+        this.branchStatisticsCache = branchStatisticsCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.verifyDays = verifyDays;
+        this.chunkDays = Math.max(chunkDays, 1);
+        this.chunkPauseMillis = chunkPauseMillis;
+    }
+    
+    @Scheduled(cron = "${app.donation-rollup.verify-cron:0 15 2 * * *}")
+    public void verifyRecent() {
+        LocalDate today = LocalDate.now();
+        run("recent", today.minusDays(verifyDays - 1L), today);
+    }
+    
+    @Scheduled(cron = "${app.donation-rollup.full-verify-cron:0 45 2 * * SUN}")
+    public void verifyAll() {
+        donationRollupRepository.findEarliestDonationDate()
+            .ifPresent(earliest -> run("full", earliest, LocalDate.now()));
+    }
+    
+    private void run(String scope, LocalDate fromDate, LocalDate toDate) {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int rebuilt = verify(fromDate, toDate);
+            if (rebuilt > 0) {
+                // Rebuilt days can belong to any branch
+                branchStatisticsCache.invalidateAll();
+            }
+            log.info("Donation rollup verification ({}) of {} to {}: {} days rebuilt", scope, fromDate, toDate, rebuilt);
+        } catch (Exception e) {
+            log.error("Donation rollup verification ({}) failed: {}", scope, e.getMessage(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("donation.rollup.verify", "scope", scope));
+            running.set(false);
+        }
+    }
+    
+    private int verify(LocalDate fromDate, LocalDate toDate) {
+        int rebuilt = 0;
+        for (LocalDate start = fromDate; !start.isAfter(toDate); start = start.plusDays(chunkDays)) {
+            LocalDate end = start.plusDays(chunkDays - 1L);
+            if (end.isAfter(toDate)) {
+                end = toDate;
+            }
+            
+            List<LocalDate> drifted = donationRollupRepository.findDriftedDays(start, end);
+            for (LocalDate day : drifted) {
+                int rows = transactionTemplate.execute(status -> donationRollupRepository.rebuild(day, day));
+                log.warn("Donation rollups for {} had drifted; rebuilt {} rows", day, rows);
+                meterRegistry.counter("donation.rollup.rebuilt_days").increment();
+                rebuilt++;
+            }
+            
+            if (!pause()) {
+                break;
+            }
+        }
+        return rebuilt;
+    }
+    
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
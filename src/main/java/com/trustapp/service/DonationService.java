@@ -5,6 +5,7 @@ import com.trustapp.dto.response.PageResponseDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
+import com.trustapp.model.RowTimestamps;
 import com.trustapp.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,31 +17,31 @@ import java.util.List;
 public class DonationService {
     
     private final DonationRepository donationRepository;
-    private final PaymentModeRepository paymentModeRepository;
-    private final DonationPurposeRepository donationPurposeRepository;
-    private final DonationSubCategoryRepository donationSubCategoryRepository;
-    private final EventRepository eventRepository;
-    private final BranchRepository branchRepository;
-    private final SerialNumberConfigRepository serialNumberConfigRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SerialNumberAllocator serialNumberAllocator;
     private final UserRepository userRepository;
+    private final DonorRepository donorRepository;
+    private final DonorDirectory donorDirectory;
+    private final CurrentUserContext currentUserContext;
+    private final BranchStatisticsCache branchStatisticsCache;
     
     public DonationService(
             DonationRepository donationRepository,
-            PaymentModeRepository paymentModeRepository,
-            DonationPurposeRepository donationPurposeRepository,
-            DonationSubCategoryRepository donationSubCategoryRepository,
-            EventRepository eventRepository,
-            BranchRepository branchRepository,
-            SerialNumberConfigRepository serialNumberConfigRepository,
-            UserRepository userRepository) {
+            ReferenceDataCache referenceDataCache,
+            SerialNumberAllocator serialNumberAllocator,
+            UserRepository userRepository,
+            DonorRepository donorRepository,
+            DonorDirectory donorDirectory,
+            CurrentUserContext currentUserContext,
+            BranchStatisticsCache branchStatisticsCache) {
         this.donationRepository = donationRepository;
-        this.paymentModeRepository = paymentModeRepository;
-        this.donationPurposeRepository = donationPurposeRepository;
-        this.donationSubCategoryRepository = donationSubCategoryRepository;
-        this.eventRepository = eventRepository;
-        this.branchRepository = branchRepository;
-        this.serialNumberConfigRepository = serialNumberConfigRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.serialNumberAllocator = serialNumberAllocator;
         this.userRepository = userRepository;
+        this.donorRepository = donorRepository;
+        this.donorDirectory = donorDirectory;
+        this.currentUserContext = currentUserContext;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
     public DonationDTO getDonationById(Long id) {
@@ -51,8 +52,9 @@ public class DonationService {
     public PageResponseDTO<DonationDTO> getAllDonations(Long branchId, Long purposeId, Long eventId,
                                                          Long paymentModeId, LocalDate fromDate, LocalDate toDate,
                                                          String donorName, String panNumber, String receiptNumber,
-                                                         Boolean includeInactive, Integer page, Integer size,
-                                                         String sortBy, String sortDir) {
+                                                         String search, Boolean includeInactive, Integer page, Integer size,
+                                                         String sortBy, String sortDir, String cursor,
+                                                         Boolean withTotal) {
         // Set defaults
         boolean includeInactiveFlag = includeInactive != null && includeInactive;
         int pageNum = page != null && page >= 0 ? page : 0;
@@ -60,61 +62,73 @@ public class DonationService {
         String sortField = sortBy != null ? sortBy : "donationDate";
         String sortDirection = sortDir != null ? sortDir : "DESC";
         
-        // Get donations
-        List<DonationDTO> donations = donationRepository.findAll(
-            branchId, purposeId, eventId, paymentModeId,
-            fromDate, toDate, donorName, panNumber, receiptNumber,
-            includeInactiveFlag, pageNum, pageSize, sortField, sortDirection
-        );
+        // Cursor mode (cursor present, empty for the first page): seek instead of OFFSET, never counts
+        boolean cursorMode = cursor != null;
+        if (cursorMode && search != null && !search.isBlank()) {
+            throw new ValidationException("Cursor pagination is not supported with search; use page and size");
+        }
+        KeysetCursor after = cursorMode && !cursor.isBlank() ? KeysetCursor.decode(cursor,
+            DonationRepository.sortKey(sortField), DonationRepository.sortDirection(sortDirection)) : null;
         
-        // Get total count
-        long totalElements = donationRepository.count(
+        // Page and total come back in one statement; withTotal=false skips counting altogether
+        boolean withTotalFlag = !cursorMode && (withTotal == null || withTotal);
+        PagedResult<DonationDTO> result = donationRepository.findAll(
             branchId, purposeId, eventId, paymentModeId,
-            fromDate, toDate, donorName, panNumber, receiptNumber,
-            includeInactiveFlag
+            fromDate, toDate, donorName, panNumber, receiptNumber, search,
+            includeInactiveFlag, cursorMode ? 0 : pageNum, pageSize, sortField, sortDirection, after, withTotalFlag
         );
-        
-        // Calculate pagination metadata
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        boolean isFirst = pageNum == 0;
-        boolean isLast = pageNum >= totalPages - 1;
-        int numberOfElements = donations.size();
+        List<DonationDTO> donations = result.content();
         
         PageResponseDTO<DonationDTO> pageResponse = new PageResponseDTO<>();
         pageResponse.setContent(donations);
-        pageResponse.setTotalElements(totalElements);
-        pageResponse.setTotalPages(totalPages);
         pageResponse.setSize(pageSize);
+        pageResponse.setLast(!result.hasNext());
+        pageResponse.setNumberOfElements(donations.size());
+        
+        if (cursorMode) {
+            pageResponse.setFirst(after == null);
+            pageResponse.setNextCursor(result.hasNext()
+                ? donationRepository.cursorAfter(donations.get(donations.size() - 1), sortField, sortDirection).encode()
+                : null);
+            return pageResponse;
+        }
+        
         pageResponse.setNumber(pageNum);
-        pageResponse.setFirst(isFirst);
-        pageResponse.setLast(isLast);
-        pageResponse.setNumberOfElements(numberOfElements);
+        pageResponse.setFirst(pageNum == 0);
+        if (result.total() != null) {
+            pageResponse.setTotalElements(result.total());
+            pageResponse.setTotalPages((int) Math.ceil((double) result.total() / pageSize));
+        }
         
         return pageResponse;
     }
 
-    public List<DonorDropdownDTO> getAllActiveDonorNames() {
-        return donationRepository.findAllActiveDonorNames();
+    // Without prefix and limit this is the full dropdown list; both are served from memory
+    public List<DonorDropdownDTO> getAllActiveDonorNames(String prefix, Integer limit) {
+        if ((prefix == null || prefix.isBlank()) && limit == null) {
+            return donorDirectory.findAll();
+        }
+        return donorDirectory.findByPrefix(prefix, limit);
     }
     
-    @Transactional
+    // Not @Transactional: validation reads run outside the write transaction, and the receipt number is
+    // taken before it opens (see SerialNumberAllocator.inTransaction)
     public DonationDTO createDonation(DonationCreateDTO createDTO, Long createdBy) {
         // Validate user exists (createdBy)
-        userRepository.findById(createdBy)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + createdBy));
+        UserDTO creator = validateUser(createdBy);
         
         // Validate payment mode exists and is active
-        PaymentModeDTO paymentMode = paymentModeRepository.findById(createDTO.getPaymentModeId())
+        PaymentModeDTO paymentMode = referenceDataCache.findPaymentMode(createDTO.getPaymentModeId())
             .orElseThrow(() -> new ResourceNotFoundException("Payment mode not found with id: " + createDTO.getPaymentModeId()));
         
         // Validate purpose exists and is active
-        DonationPurposeDTO purpose = donationPurposeRepository.findById(createDTO.getPurposeId())
+        DonationPurposeDTO purpose = referenceDataCache.findPurpose(createDTO.getPurposeId())
             .orElseThrow(() -> new ResourceNotFoundException("Donation purpose not found with id: " + createDTO.getPurposeId()));
         
         // Validate sub-category if provided
         DonationSubCategoryDTO subCategory = null;
         if (createDTO.getSubCategoryId() != null) {
-            subCategory = donationSubCategoryRepository.findById(createDTO.getSubCategoryId())
+            subCategory = referenceDataCache.findSubCategory(createDTO.getSubCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Donation sub-category not found with id: " + createDTO.getSubCategoryId()));
             
             // Validate sub-category belongs to the specified purpose
@@ -126,12 +140,12 @@ public class DonationService {
         // Validate event if provided
         EventDTO event = null;
         if (createDTO.getEventId() != null) {
-            event = eventRepository.findById(createDTO.getEventId())
+            event = referenceDataCache.findEvent(createDTO.getEventId())
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + createDTO.getEventId()));
         }
         
         // Validate branch exists and is active
-        BranchDTO branch = branchRepository.findById(createDTO.getBranchId())
+        BranchDTO branch = referenceDataCache.findBranch(createDTO.getBranchId())
             .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + createDTO.getBranchId()));
         
         // Validate donation date is not in the future
@@ -139,14 +153,17 @@ public class DonationService {
             throw new ValidationException("Donation date cannot be in the future");
         }
         
-        // Generate receipt number
-        String receiptNumber;
-        try {
-            receiptNumber = serialNumberConfigRepository.getNextSerialNumber("DONATION");
-        } catch (IllegalStateException e) {
-            throw new ResourceNotFoundException("Serial number config not found for entity: DONATION");
-        }
-        
+        // Generate receipt number and write the donation with it
+        DonationSubCategoryDTO validatedSubCategory = subCategory;
+        EventDTO validatedEvent = event;
+        return serialNumberAllocator.inTransaction("DONATION", branch.getId(), branch.getCode(), serialNumber ->
+            insertDonation(createDTO, createdBy, serialNumber.value(), creator, paymentMode, purpose,
+                validatedSubCategory, validatedEvent, branch));
+    }
+    
+    private DonationDTO insertDonation(DonationCreateDTO createDTO, Long createdBy, String receiptNumber,
+                                       UserDTO creator, PaymentModeDTO paymentMode, DonationPurposeDTO purpose,
+                                       DonationSubCategoryDTO subCategory, EventDTO event, BranchDTO branch) {
         // Check for duplicate receipt number (shouldn't happen, but safety check)
         if (donationRepository.existsByReceiptNumber(receiptNumber)) {
             throw new DuplicateResourceException("Receipt number already exists: " + receiptNumber);
@@ -170,8 +187,36 @@ public class DonationService {
             createDTO.getNotes(),
             createdBy
         );
+        RowTimestamps timestamps = donationRepository.findTimestamps(donationId);
         
-        return getDonationById(donationId);
+        // Keep the donor directory in step with the active donations
+        donorRepository.incrementActiveDonations(createDTO.getDonorName(), donationId);
+        donorDirectory.refreshAfterCommit(List.of(createDTO.getDonorName()));
+        branchStatisticsCache.invalidateBranch(createDTO.getBranchId());
+        
+        // Build the response from what was validated and written instead of re-reading the join
+        DonationDTO donation = new DonationDTO();
+        donation.setId(donationId);
+        donation.setReceiptNumber(receiptNumber);
+        donation.setDonorName(createDTO.getDonorName());
+        donation.setDonorAddress(createDTO.getDonorAddress());
+        donation.setPanNumber(createDTO.getPanNumber());
+        donation.setDonorPhone(createDTO.getDonorPhone());
+        donation.setDonorEmail(createDTO.getDonorEmail());
+        donation.setAmount(createDTO.getAmount());
+        donation.setPaymentMode(summaryOf(paymentMode));
+        donation.setPurpose(summaryOf(purpose));
+        donation.setSubCategory(subCategory != null ? summaryOf(subCategory) : null);
+        donation.setEvent(event != null ? summaryOf(event) : null);
+        donation.setBranch(summaryOf(branch));
+        donation.setDonationDate(createDTO.getDonationDate());
+        donation.setNotes(createDTO.getNotes());
+        donation.setReceiptGenerated(false);
+        donation.setIsActive(true);
+        donation.setCreatedAt(timestamps.createdAt());
+        donation.setUpdatedAt(timestamps.updatedAt());
+        donation.setCreatedBy(summaryOf(creator));
+        return donation;
     }
     
     @Transactional
@@ -185,8 +230,7 @@ public class DonationService {
         }
         
         // Validate user exists (updatedBy)
-        userRepository.findById(updatedBy)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + updatedBy));
+        UserDTO updater = validateUser(updatedBy);
         
         // Determine values to update (use existing if not provided in updateDTO)
         String donorName = updateDTO.getDonorName() != null ? updateDTO.getDonorName() : existingDonation.getDonorName();
@@ -206,20 +250,23 @@ public class DonationService {
         String notes = updateDTO.getNotes() != null ? updateDTO.getNotes() : existingDonation.getNotes();
         
         // Validate payment mode if being updated
+        PaymentModeDTO paymentMode = existingDonation.getPaymentMode();
         if (updateDTO.getPaymentModeId() != null) {
-            paymentModeRepository.findById(updateDTO.getPaymentModeId())
+            paymentMode = referenceDataCache.findPaymentMode(updateDTO.getPaymentModeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Payment mode not found with id: " + updateDTO.getPaymentModeId()));
         }
         
         // Validate purpose if being updated
+        DonationPurposeDTO purpose = existingDonation.getPurpose();
         if (updateDTO.getPurposeId() != null) {
-            donationPurposeRepository.findById(updateDTO.getPurposeId())
+            purpose = referenceDataCache.findPurpose(updateDTO.getPurposeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Donation purpose not found with id: " + updateDTO.getPurposeId()));
         }
         
         // Validate sub-category if being updated
+        DonationSubCategoryDTO subCategory = existingDonation.getSubCategory();
         if (updateDTO.getSubCategoryId() != null) {
-            DonationSubCategoryDTO subCategory = donationSubCategoryRepository.findById(updateDTO.getSubCategoryId())
+            subCategory = referenceDataCache.findSubCategory(updateDTO.getSubCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Donation sub-category not found with id: " + updateDTO.getSubCategoryId()));
             
             // Validate sub-category belongs to the specified purpose
@@ -230,14 +277,16 @@ public class DonationService {
         }
         
         // Validate event if being updated
+        EventDTO event = existingDonation.getEvent();
         if (updateDTO.getEventId() != null) {
-            eventRepository.findById(updateDTO.getEventId())
+            event = referenceDataCache.findEvent(updateDTO.getEventId())
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + updateDTO.getEventId()));
         }
         
         // Validate branch if being updated
+        BranchDTO branch = existingDonation.getBranch();
         if (updateDTO.getBranchId() != null) {
-            branchRepository.findById(updateDTO.getBranchId())
+            branch = referenceDataCache.findBranch(updateDTO.getBranchId())
                 .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + updateDTO.getBranchId()));
         }
         
@@ -264,8 +313,33 @@ public class DonationService {
             notes,
             updatedBy
         );
+        RowTimestamps timestamps = donationRepository.findTimestamps(id);
+        
+        // Move the donation to the new name in the donor directory
+        if (!donorName.equals(existingDonation.getDonorName())) {
+            donorRepository.decrementActiveDonations(existingDonation.getDonorName());
+            donorRepository.incrementActiveDonations(donorName, id);
+            donorDirectory.refreshAfterCommit(List.of(existingDonation.getDonorName(), donorName));
+        }
+        branchStatisticsCache.invalidateBranches(List.of(existingDonation.getBranch().getId(), branchId));
         
-        return getDonationById(id);
+        // The existing row carries the unchanged columns; only the written values are replaced
+        existingDonation.setDonorName(donorName);
+        existingDonation.setDonorAddress(donorAddress);
+        existingDonation.setPanNumber(panNumber);
+        existingDonation.setDonorPhone(donorPhone);
+        existingDonation.setDonorEmail(donorEmail);
+        existingDonation.setAmount(amount);
+        existingDonation.setPaymentMode(summaryOf(paymentMode));
+        existingDonation.setPurpose(summaryOf(purpose));
+        existingDonation.setSubCategory(subCategory != null ? summaryOf(subCategory) : null);
+        existingDonation.setEvent(event != null ? summaryOf(event) : null);
+        existingDonation.setBranch(summaryOf(branch));
+        existingDonation.setDonationDate(donationDate);
+        existingDonation.setNotes(notes);
+        existingDonation.setUpdatedAt(timestamps.updatedAt());
+        existingDonation.setUpdatedBy(summaryOf(updater));
+        return existingDonation;
     }
     
     @Transactional
@@ -279,11 +353,82 @@ public class DonationService {
         }
         
         // Validate user exists (deletedBy)
-        userRepository.findById(deletedBy)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + deletedBy));
+        validateUser(deletedBy);
         
         // Soft delete donation
         donationRepository.delete(id, deletedBy);
+        
+        donorRepository.decrementActiveDonations(existingDonation.getDonorName());
+        donorDirectory.refreshAfterCommit(List.of(existingDonation.getDonorName()));
+        branchStatisticsCache.invalidateBranch(existingDonation.getBranch().getId());
+    }
+    
+    // The authenticated user was loaded with the token, so only a different acting user costs a SELECT
+    private UserDTO validateUser(Long userId) {
+        return currentUserContext.find()
+            .filter(user -> user.getId().equals(userId))
+            .or(() -> userRepository.findById(userId))
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+    
+    // The nested objects carry the same columns the donation query selects. Copies are taken because
+    // the validated rows are shared reference-data cache entries.
+    private static PaymentModeDTO summaryOf(PaymentModeDTO source) {
+        PaymentModeDTO paymentMode = new PaymentModeDTO();
+        paymentMode.setId(source.getId());
+        paymentMode.setCode(source.getCode());
+        paymentMode.setName(source.getName());
+        paymentMode.setDescription(source.getDescription());
+        return paymentMode;
+    }
+    
+    private static DonationPurposeDTO summaryOf(DonationPurposeDTO source) {
+        DonationPurposeDTO purpose = new DonationPurposeDTO();
+        purpose.setId(source.getId());
+        purpose.setCode(source.getCode());
+        purpose.setName(source.getName());
+        purpose.setDescription(source.getDescription());
+        return purpose;
+    }
+    
+    private static DonationSubCategoryDTO summaryOf(DonationSubCategoryDTO source) {
+        DonationSubCategoryDTO subCategory = new DonationSubCategoryDTO();
+        subCategory.setId(source.getId());
+        subCategory.setCode(source.getCode());
+        subCategory.setName(source.getName());
+        subCategory.setDescription(source.getDescription());
+        return subCategory;
+    }
+    
+    private static EventDTO summaryOf(EventDTO source) {
+        EventDTO event = new EventDTO();
+        event.setId(source.getId());
+        event.setCode(source.getCode());
+        event.setName(source.getName());
+        event.setDescription(source.getDescription());
+        event.setStartDate(source.getStartDate());
+        event.setEndDate(source.getEndDate());
+        event.setStatus(source.getStatus());
+        return event;
+    }
+    
+    private static BranchDTO summaryOf(BranchDTO source) {
+        BranchDTO branch = new BranchDTO();
+        branch.setId(source.getId());
+        branch.setCode(source.getCode());
+        branch.setName(source.getName());
+        branch.setAddress(source.getAddress());
+        branch.setCity(source.getCity());
+        branch.setState(source.getState());
+        return branch;
+    }
+    
+    private static UserDTO summaryOf(UserDTO source) {
+        UserDTO user = new UserDTO();
+        user.setId(source.getId());
+        user.setUsername(source.getUsername());
+        user.setEmail(source.getEmail());
+        return user;
     }
 }
 
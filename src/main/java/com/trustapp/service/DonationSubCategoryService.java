@@ -6,7 +6,6 @@ import com.trustapp.dto.DonationSubCategoryDropdownDTO;
 import com.trustapp.dto.DonationSubCategoryUpdateDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ResourceNotFoundException;
-import com.trustapp.repository.DonationPurposeRepository;
 import com.trustapp.repository.DonationSubCategoryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,13 +16,13 @@ import java.util.List;
 public class DonationSubCategoryService {
     
     private final DonationSubCategoryRepository donationSubCategoryRepository;
-    private final DonationPurposeRepository donationPurposeRepository;
+    private final ReferenceDataCache referenceDataCache;
     
     public DonationSubCategoryService(
             DonationSubCategoryRepository donationSubCategoryRepository,
-            DonationPurposeRepository donationPurposeRepository) {
+            ReferenceDataCache referenceDataCache) {
         this.donationSubCategoryRepository = donationSubCategoryRepository;
-        this.donationPurposeRepository = donationPurposeRepository;
+        this.referenceDataCache = referenceDataCache;
     }
     
     public List<DonationSubCategoryDTO> getAllDonationSubCategories(Long purposeId, boolean includeInactive) {
@@ -38,7 +37,7 @@ public class DonationSubCategoryService {
     @Transactional
     public DonationSubCategoryDTO createDonationSubCategory(DonationSubCategoryCreateDTO createDTO, Long userId) {
         // Validate that purpose exists
-        donationPurposeRepository.findById(createDTO.getPurposeId())
+        referenceDataCache.findPurpose(createDTO.getPurposeId())
             .orElseThrow(() -> new ResourceNotFoundException("Donation purpose not found with id: " + createDTO.getPurposeId()));
         
         // Check for duplicate code within the same purpose
@@ -75,6 +74,7 @@ public class DonationSubCategoryService {
         subCategoryDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingSubCategory.getIsActive());
         
         donationSubCategoryRepository.update(subCategoryDTO, userId);
+        referenceDataCache.invalidateSubCategory(id);
         return getDonationSubCategoryById(id);
     }
     
@@ -85,6 +85,7 @@ public class DonationSubCategoryService {
         
         // Perform soft delete
         donationSubCategoryRepository.delete(id, userId);
+        referenceDataCache.invalidateSubCategory(id);
     }
     
     public List<DonationSubCategoryDropdownDTO> getAllDonationSubCategoriesForDropdown(Long purposeId) {
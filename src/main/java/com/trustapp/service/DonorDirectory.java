@@ -0,0 +1,156 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.DonorDropdownDTO;
+import com.trustapp.model.Donor;
+import com.trustapp.repository.DonorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory, sorted prefix index over the donors table for the donor-name typeahead.
+// Keys are the lower-cased name plus the donor id, so a prefix lookup is a range scan of the skip list.
+// Entries carry the donor's earliest active donation id as their id, as the dropdown always has.
+// Local writes are applied after commit; writes made by other nodes arrive with the periodic sync.
+@Slf4j
+@Component
+public class DonorDirectory {
+    
+    private static final char KEY_SEPARATOR = '\u0000';
+    
+    private final DonorRepository donorRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final Duration syncOverlap;
+    
+    private final NavigableMap<String, DonorDropdownDTO> index = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keysById = new ConcurrentHashMap<>();
+    private volatile LocalDateTime syncedUpTo;
+    
+    public DonorDirectory(DonorRepository donorRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.donor-directory.default-limit:20}") int defaultLimit,
+                          @Value("${app.donor-directory.max-limit:100}") int maxLimit,
+                          @Value("${app.donor-directory.sync-overlap-seconds:120}") long syncOverlapSeconds) {
+        this.donorRepository = donorRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.syncOverlap = Duration.ofSeconds(syncOverlapSeconds);
+        
+        meterRegistry.gaugeMapSize("donor.directory.size", Tags.empty(), keysById);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        index.clear();
+        keysById.clear();
+        List<Donor> donors = donorRepository.findAllActive();
+        donors.forEach(this::apply);
+        syncedUpTo = latest(donors, null);
+        log.info("Donor directory loaded with {} names", donors.size());
+    }
+    
+    // Picks up changes committed by other nodes. The overlap re-reads recent rows, because a
+    // transaction can commit after a later sync already passed its updated_at second.
+    @Scheduled(fixedDelayString = "${app.donor-directory.sync-interval-ms:60000}",
+               initialDelayString = "${app.donor-directory.sync-interval-ms:60000}")
+    public synchronized void sync() {
+        if (syncedUpTo == null) {
+            load();
+            return;
+        }
+        
+        List<Donor> changed = donorRepository.findUpdatedSince(syncedUpTo.minus(syncOverlap));
+        changed.forEach(this::apply);
+        syncedUpTo = latest(changed, syncedUpTo);
+    }
+    
+    // Call from inside the transaction that changed the names' donation counts
+    public void refreshAfterCommit(Collection<String> names) {
+        List<String> copy = List.copyOf(names);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(copy);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(copy);
+            }
+        });
+    }
+    
+    public List<DonorDropdownDTO> findAll() {
+        return new ArrayList<>(index.values());
+    }
+    
+    public List<DonorDropdownDTO> findByPrefix(String prefix, Integer limit) {
+        int effectiveLimit = limit == null ? defaultLimit : Math.min(Math.max(limit, 1), maxLimit);
+        String from = normalize(prefix == null ? "" : prefix);
+        
+        List<DonorDropdownDTO> matches = new ArrayList<>(effectiveLimit);
+        for (DonorDropdownDTO donor : index.subMap(from, true, from + Character.MAX_VALUE, true).values()) {
+            if (matches.size() >= effectiveLimit) {
+                break;
+            }
+            matches.add(donor);
+        }
+        return matches;
+    }
+    
+    private void refresh(List<String> names) {
+        try {
+            List<Donor> donors = donorRepository.findByNames(names);
+            synchronized (this) {
+                donors.forEach(this::apply);
+            }
+        } catch (Exception e) {
+            // The next sync corrects the index; the donation write itself has already committed
+            log.warn("Donor directory refresh failed for {} names: {}", names.size(), e.getMessage());
+        }
+    }
+    
+    private void apply(Donor donor) {
+        String previousKey = keysById.remove(donor.id());
+        if (previousKey != null) {
+            index.remove(previousKey);
+        }
+        if (donor.isActive()) {
+            String key = normalize(donor.name()) + KEY_SEPARATOR + donor.id();
+            index.put(key, new DonorDropdownDTO(donor.firstDonationId(), donor.name()));
+            keysById.put(donor.id(), key);
+        }
+    }
+    
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static LocalDateTime latest(List<Donor> donors, LocalDateTime current) {
+        LocalDateTime latest = current;
+        for (Donor donor : donors) {
+            if (donor.updatedAt() != null && (latest == null || donor.updatedAt().isAfter(latest))) {
+                latest = donor.updatedAt();
+            }
+        }
+        return latest != null ? latest : LocalDateTime.now();
+    }
+}
+
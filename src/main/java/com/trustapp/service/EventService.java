@@ -2,27 +2,43 @@ package com.trustapp.service;
 
 import com.trustapp.dto.EventCreateDTO;
 import com.trustapp.dto.EventDTO;
+import com.trustapp.dto.EventDashboardDTO;
 import com.trustapp.dto.EventDropdownDTO;
 import com.trustapp.dto.EventUpdateDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
-import com.trustapp.repository.BranchRepository;
+import com.trustapp.model.EventMonthStats;
 import com.trustapp.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 @Service
 public class EventService {
     
     private final EventRepository eventRepository;
-    private final BranchRepository branchRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final BranchStatisticsCache branchStatisticsCache;
+    private final int dashboardListLimit;
     
-    public EventService(EventRepository eventRepository, BranchRepository branchRepository) {
+    public EventService(EventRepository eventRepository, ReferenceDataCache referenceDataCache,
+                        BranchStatisticsCache branchStatisticsCache,
+                        @Value("${app.event-dashboard.list-limit:10}") int dashboardListLimit) {
         this.eventRepository = eventRepository;
-        this.branchRepository = branchRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.branchStatisticsCache = branchStatisticsCache;
+        this.dashboardListLimit = dashboardListLimit;
     }
     
     public List<EventDTO> getAllEvents(Long branchId, String status, boolean includeInactive) {
@@ -43,7 +59,7 @@ public class EventService {
         
         // Validate branch exists if branchId is provided
         if (createDTO.getBranchId() != null) {
-            branchRepository.findById(createDTO.getBranchId())
+            referenceDataCache.findBranch(createDTO.getBranchId())
                 .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + createDTO.getBranchId()));
         }
         
@@ -66,6 +82,7 @@ public class EventService {
         eventDTO.setIsActive(createDTO.getIsActive());
         
         Long id = eventRepository.save(eventDTO, userId);
+        branchStatisticsCache.invalidateBranch(createDTO.getBranchId());
         return getEventById(id);
     }
     
@@ -76,7 +93,7 @@ public class EventService {
         
         // Validate branch exists if branchId is provided
         if (updateDTO.getBranchId() != null) {
-            branchRepository.findById(updateDTO.getBranchId())
+            referenceDataCache.findBranch(updateDTO.getBranchId())
                 .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + updateDTO.getBranchId()));
         }
         
@@ -100,20 +117,81 @@ public class EventService {
         eventDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingEvent.getIsActive());
         
         eventRepository.update(eventDTO, userId);
+        referenceDataCache.invalidateEvent(id);
+        branchStatisticsCache.invalidateBranches(Arrays.asList(existingEvent.getBranchId(), updateDTO.getBranchId()));
         return getEventById(id);
     }
     
     @Transactional
     public void deleteEvent(Long id, Long userId) {
         // Check if event exists
-        getEventById(id);
+        EventDTO existingEvent = getEventById(id);
         
         // Perform soft delete
         eventRepository.delete(id, userId);
+        referenceDataCache.invalidateEvent(id);
+        branchStatisticsCache.invalidateBranch(existingEvent.getBranchId());
     }
     
     public List<EventDropdownDTO> getAllEventsForDropdown(Long branchId) {
         return eventRepository.findAllForDropdown(branchId);
     }
+    
+    // Four indexed queries over the year's events joined to their running donation totals; summary
+    // and financial overview are summed from the (at most twelve) monthly rows
+    public EventDashboardDTO getDashboard(Long branchId, Integer year) {
+        int dashboardYear = year != null ? year : LocalDate.now().getYear();
+        if (dashboardYear < 1900 || dashboardYear > 9999) {
+            throw new ValidationException("Invalid year: " + dashboardYear);
+        }
+        if (branchId != null) {
+            referenceDataCache.findBranch(branchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + branchId));
+        }
+        
+        LocalDate fromDate = LocalDate.of(dashboardYear, 1, 1);
+        LocalDate toDate = LocalDate.of(dashboardYear, 12, 31);
+        List<EventMonthStats> months = eventRepository.findMonthStats(branchId, fromDate, toDate);
+        
+        long totalEvents = 0;
+        long planned = 0;
+        long active = 0;
+        long completed = 0;
+        long cancelled = 0;
+        long donationCount = 0;
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        List<EventDashboardDTO.MonthlyBreakdown> monthlyBreakdown = new ArrayList<>();
+        for (EventMonthStats month : months) {
+            totalEvents += month.eventCount();
+            planned += month.plannedCount();
+            active += month.activeCount();
+            completed += month.completedCount();
+            cancelled += month.cancelledCount();
+            donationCount += month.donationCount();
+            totalIncome = totalIncome.add(month.totalIncome());
+            monthlyBreakdown.add(new EventDashboardDTO.MonthlyBreakdown(
+                Month.of(month.month()).getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+                month.eventCount(),
+                month.totalIncome(),
+                BigDecimal.ZERO
+            ));
+        }
+        
+        // Event expenses are not recorded yet, so profit equals income
+        BigDecimal totalExpenses = BigDecimal.ZERO;
+        BigDecimal netProfit = totalIncome.subtract(totalExpenses);
+        BigDecimal averageProfit = totalEvents > 0
+            ? netProfit.divide(BigDecimal.valueOf(totalEvents), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
+        
+        EventDashboardDTO dashboard = new EventDashboardDTO();
+        dashboard.setSummary(new EventDashboardDTO.Summary(totalEvents, planned, active, completed, cancelled, donationCount));
+        dashboard.setUpcomingEvents(eventRepository.findUpcoming(branchId, fromDate, toDate, LocalDate.now(), dashboardListLimit));
+        dashboard.setActiveEvents(eventRepository.findActiveWithTotals(branchId, fromDate, toDate, dashboardListLimit));
+        dashboard.setTopEvents(eventRepository.findTopByCollection(branchId, fromDate, toDate, dashboardListLimit));
+        dashboard.setFinancialOverview(new EventDashboardDTO.FinancialOverview(totalIncome, totalExpenses, netProfit, averageProfit));
+        dashboard.setMonthlyBreakdown(monthlyBreakdown);
+        return dashboard;
+    }
 }
 
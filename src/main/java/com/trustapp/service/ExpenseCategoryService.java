@@ -17,9 +17,11 @@ import java.util.List;
 public class ExpenseCategoryService {
     
     private final ExpenseCategoryRepository expenseCategoryRepository;
+    private final ReferenceDataCache referenceDataCache;
     
-    public ExpenseCategoryService(ExpenseCategoryRepository expenseCategoryRepository) {
+    public ExpenseCategoryService(ExpenseCategoryRepository expenseCategoryRepository, ReferenceDataCache referenceDataCache) {
         this.expenseCategoryRepository = expenseCategoryRepository;
+        this.referenceDataCache = referenceDataCache;
     }
     
     public List<ExpenseCategoryDTO> getAllExpenseCategories(boolean includeInactive) {
@@ -64,6 +66,7 @@ public class ExpenseCategoryService {
         categoryDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingCategory.getIsActive());
         
         expenseCategoryRepository.update(categoryDTO, userId);
+        referenceDataCache.invalidateExpenseCategory(id);
         return getExpenseCategoryById(id);
     }
     
@@ -75,6 +78,7 @@ public class ExpenseCategoryService {
         // Delete will check for sub-categories and throw exception if they exist
         try {
             expenseCategoryRepository.delete(id, userId);
+            referenceDataCache.invalidateExpenseCategory(id);
         } catch (IllegalStateException e) {
             // Convert IllegalStateException to ValidationException for proper error handling
             throw new ValidationException(e.getMessage());
@@ -5,7 +5,6 @@ import com.trustapp.dto.ExpenseSubCategoryDTO;
 import com.trustapp.dto.ExpenseSubCategoryUpdateDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ResourceNotFoundException;
-import com.trustapp.repository.ExpenseCategoryRepository;
 import com.trustapp.repository.ExpenseSubCategoryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,13 +15,13 @@ import java.util.List;
 public class ExpenseSubCategoryService {
     
     private final ExpenseSubCategoryRepository expenseSubCategoryRepository;
-    private final ExpenseCategoryRepository expenseCategoryRepository;
+    private final ReferenceDataCache referenceDataCache;
     
     public ExpenseSubCategoryService(
             ExpenseSubCategoryRepository expenseSubCategoryRepository,
-            ExpenseCategoryRepository expenseCategoryRepository) {
+            ReferenceDataCache referenceDataCache) {
         this.expenseSubCategoryRepository = expenseSubCategoryRepository;
-        this.expenseCategoryRepository = expenseCategoryRepository;
+        this.referenceDataCache = referenceDataCache;
     }
     
     public List<ExpenseSubCategoryDTO> getAllExpenseSubCategories(Long categoryId, boolean includeInactive) {
@@ -37,7 +36,7 @@ public class ExpenseSubCategoryService {
     @Transactional
     public ExpenseSubCategoryDTO createExpenseSubCategory(ExpenseSubCategoryCreateDTO createDTO, Long userId) {
         // Validate that category exists
-        expenseCategoryRepository.findById(createDTO.getCategoryId())
+        referenceDataCache.findExpenseCategory(createDTO.getCategoryId())
             .orElseThrow(() -> new ResourceNotFoundException("Expense category not found with id: " + createDTO.getCategoryId()));
         
         // Check for duplicate code within the same category
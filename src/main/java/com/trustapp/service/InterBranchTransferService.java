@@ -1,66 +1,56 @@
 package com.trustapp.service;
 
+import com.trustapp.dto.BranchDTO;
 import com.trustapp.dto.InterBranchTransferCreateDTO;
 import com.trustapp.dto.InterBranchTransferDTO;
 import com.trustapp.dto.InterBranchTransferStatusUpdateDTO;
+import com.trustapp.dto.PaymentModeDTO;
 import com.trustapp.dto.UserDTO;
 import com.trustapp.dto.response.PageResponseDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ForbiddenException;
 import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
+import com.trustapp.model.AuthorizationContext;
+import com.trustapp.model.RowTimestamps;
 import com.trustapp.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
 public class InterBranchTransferService {
     
     private final InterBranchTransferRepository interBranchTransferRepository;
-    private final BranchRepository branchRepository;
-    private final PaymentModeRepository paymentModeRepository;
-    private final SerialNumberConfigRepository serialNumberConfigRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SerialNumberAllocator serialNumberAllocator;
     private final UserRepository userRepository;
-    private final UserBranchAccessRepository userBranchAccessRepository;
     private final AuthenticationService authenticationService;
-    private final RoleRepository roleRepository;
-    private final UserRoleRepository userRoleRepository;
+    private final AuthorizationContextCache authorizationContextCache;
+    private final BranchStatisticsCache branchStatisticsCache;
     
     public InterBranchTransferService(
             InterBranchTransferRepository interBranchTransferRepository,
-            BranchRepository branchRepository,
-            PaymentModeRepository paymentModeRepository,
-            SerialNumberConfigRepository serialNumberConfigRepository,
+            ReferenceDataCache referenceDataCache,
+            SerialNumberAllocator serialNumberAllocator,
             UserRepository userRepository,
-            UserBranchAccessRepository userBranchAccessRepository,
             AuthenticationService authenticationService,
-            RoleRepository roleRepository,
-            UserRoleRepository userRoleRepository) {
+            AuthorizationContextCache authorizationContextCache,
+            BranchStatisticsCache branchStatisticsCache) {
         this.interBranchTransferRepository = interBranchTransferRepository;
-        this.branchRepository = branchRepository;
-        this.paymentModeRepository = paymentModeRepository;
-        this.serialNumberConfigRepository = serialNumberConfigRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.serialNumberAllocator = serialNumberAllocator;
         this.userRepository = userRepository;
-        this.userBranchAccessRepository = userBranchAccessRepository;
         this.authenticationService = authenticationService;
-        this.roleRepository = roleRepository;
-        this.userRoleRepository = userRoleRepository;
+        this.authorizationContextCache = authorizationContextCache;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
-    private boolean isSuperUser(Long userId) {
-        var superUserRole = roleRepository.findByCode("SUPER_USER");
-        if (superUserRole.isEmpty()) {
-            return false;
-        }
-        Long superUserRoleId = superUserRole.get().getId();
-        var roleIds = userRoleRepository.findRoleIdsByUserId(userId);
-        return roleIds.contains(superUserRoleId);
-    }
-    
-    @Transactional
+    // Not @Transactional: validation reads run outside the write transaction, and the transfer number is
+    // taken before it opens (see SerialNumberAllocator.inTransaction)
     public InterBranchTransferDTO createTransfer(InterBranchTransferCreateDTO createDTO, Long createdBy) {
         // Get authenticated user
         var currentUser = authenticationService.getCurrentUser();
@@ -69,16 +59,16 @@ public class InterBranchTransferService {
         // Use provided createdBy if specified, otherwise use authenticated user
         Long creatorId = createdBy != null ? createdBy : currentUserId;
         
-        // Validate user exists
-        userRepository.findById(creatorId)
+        // Validate user exists; the authenticated user was already loaded with the token
+        UserDTO creator = creatorId.equals(currentUserId) ? currentUser : userRepository.findById(creatorId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + creatorId));
         
         // Validate fromBranchId exists and is active
-        branchRepository.findById(createDTO.getFromBranchId())
+        BranchDTO fromBranch = referenceDataCache.findBranch(createDTO.getFromBranchId())
             .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + createDTO.getFromBranchId()));
         
         // Validate toBranchId exists and is active
-        branchRepository.findById(createDTO.getToBranchId())
+        BranchDTO toBranch = referenceDataCache.findBranch(createDTO.getToBranchId())
             .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + createDTO.getToBranchId()));
         
         // Validate fromBranchId != toBranchId
@@ -86,17 +76,14 @@ public class InterBranchTransferService {
             throw new ValidationException("Source branch and destination branch must be different");
         }
         
-        // Check if user has access to source branch (fromBranchId)
-        boolean isSuper = isSuperUser(currentUserId);
-        if (!isSuper) {
-            boolean hasAccess = userBranchAccessRepository.hasAccessToBranch(currentUserId, createDTO.getFromBranchId());
-            if (!hasAccess) {
-                throw new ForbiddenException("Access denied. You do not have permission to access the source branch.");
-            }
+        // Check if user has access to source branch (fromBranchId); super users can access every branch
+        boolean hasAccess = authorizationContextCache.get(currentUserId).hasAccessToBranch(createDTO.getFromBranchId());
+        if (!hasAccess) {
+            throw new ForbiddenException("Access denied. You do not have permission to access the source branch.");
         }
         
         // Validate payment mode exists and is active
-        paymentModeRepository.findById(createDTO.getPaymentModeId())
+        PaymentModeDTO paymentMode = referenceDataCache.findPaymentMode(createDTO.getPaymentModeId())
             .orElseThrow(() -> new ResourceNotFoundException("Payment mode not found with id: " + createDTO.getPaymentModeId()));
         
         // Validate status if provided
@@ -109,14 +96,16 @@ public class InterBranchTransferService {
             status = "PENDING"; // Default status
         }
         
-        // Generate transfer number
-        String transferNumber;
-        try {
-            transferNumber = serialNumberConfigRepository.getNextSerialNumber("INTER_BRANCH_TRANSFER");
-        } catch (IllegalStateException e) {
-            throw new ResourceNotFoundException("Serial number config not found for entity: INTER_BRANCH_TRANSFER");
-        }
-        
+        // Generate transfer number and write the transfer with it
+        String validatedStatus = status;
+        return serialNumberAllocator.inTransaction("INTER_BRANCH_TRANSFER", fromBranch.getId(), fromBranch.getCode(),
+            serialNumber -> insertTransfer(createDTO, creatorId, serialNumber.value(), validatedStatus,
+                creator, fromBranch, toBranch, paymentMode));
+    }
+    
+    private InterBranchTransferDTO insertTransfer(InterBranchTransferCreateDTO createDTO, Long creatorId,
+                                                  String transferNumber, String status, UserDTO creator,
+                                                  BranchDTO fromBranch, BranchDTO toBranch, PaymentModeDTO paymentMode) {
         // Check for duplicate transfer number (shouldn't happen, but safety check)
         if (interBranchTransferRepository.existsByTransferNumber(transferNumber)) {
             throw new DuplicateResourceException("Transfer number already exists: " + transferNumber);
@@ -135,8 +124,26 @@ public class InterBranchTransferService {
             status,
             creatorId
         );
+        RowTimestamps timestamps = interBranchTransferRepository.findTimestamps(transferId);
+        branchStatisticsCache.invalidateBranches(List.of(fromBranch.getId(), toBranch.getId()));
         
-        return getTransferById(transferId);
+        // Build the response from what was validated and written instead of re-reading the join
+        InterBranchTransferDTO transfer = new InterBranchTransferDTO();
+        transfer.setId(transferId);
+        transfer.setTransferNumber(transferNumber);
+        transfer.setFromBranch(new InterBranchTransferDTO.BranchInfo(fromBranch.getId(), fromBranch.getCode(), fromBranch.getName()));
+        transfer.setToBranch(new InterBranchTransferDTO.BranchInfo(toBranch.getId(), toBranch.getCode(), toBranch.getName()));
+        transfer.setAmount(createDTO.getAmount());
+        transfer.setTransferDate(createDTO.getTransferDate());
+        transfer.setPaymentMode(new InterBranchTransferDTO.PaymentModeInfo(paymentMode.getId(), paymentMode.getCode(), paymentMode.getName()));
+        transfer.setReferenceNumber(createDTO.getReferenceNumber());
+        transfer.setDescription(createDTO.getDescription());
+        transfer.setStatus(status);
+        transfer.setIsActive(true);
+        transfer.setCreatedAt(timestamps.createdAt());
+        transfer.setUpdatedAt(timestamps.updatedAt());
+        transfer.setCreatedBy(new InterBranchTransferDTO.UserInfo(creator.getId(), creator.getUsername(), creator.getEmail()));
+        return transfer;
     }
     
     public InterBranchTransferDTO getTransferById(Long id) {
@@ -146,16 +153,14 @@ public class InterBranchTransferService {
     
     public PageResponseDTO<InterBranchTransferDTO> getAllTransfers(Long fromBranchId, Long toBranchId, String status,
                                                                    LocalDate fromDate, LocalDate toDate,
-                                                                   Integer page, Integer size, String sortBy, String sortDir) {
+                                                                   Integer page, Integer size, String sortBy, String sortDir,
+                                                                   String cursor, Boolean withTotal) {
         // Get authenticated user
         UserDTO currentUser = authenticationService.getCurrentUser();
         Long userId = currentUser.getId();
         
-        // Check if user is super user
-        boolean isSuper = isSuperUser(userId);
-        
         // Get accessible branch IDs (null for super users means all transfers)
-        List<Long> accessibleBranchIds = isSuper ? null : userBranchAccessRepository.findBranchIdsByUserId(userId);
+        List<Long> accessibleBranchIds = authorizationContextCache.get(userId).getAccessibleBranchIds();
         
         // Set defaults
         int pageNum = page != null && page >= 0 ? page : 0;
@@ -163,32 +168,39 @@ public class InterBranchTransferService {
         String sortField = sortBy != null ? sortBy : "transferDate";
         String sortDirection = sortDir != null ? sortDir : "DESC";
         
-        // Get transfers with filters
-        List<InterBranchTransferDTO> transfers = interBranchTransferRepository.findAll(
-            fromBranchId, toBranchId, status, fromDate, toDate,
-            accessibleBranchIds, pageNum, pageSize, sortField, sortDirection
-        );
+        // Cursor mode (cursor present, empty for the first page): seek instead of OFFSET, never counts
+        boolean cursorMode = cursor != null;
+        KeysetCursor after = cursorMode && !cursor.isBlank() ? KeysetCursor.decode(cursor,
+            InterBranchTransferRepository.sortKey(sortField), InterBranchTransferRepository.sortDirection(sortDirection)) : null;
         
-        // Get total count
-        long totalElements = interBranchTransferRepository.count(
-            fromBranchId, toBranchId, status, fromDate, toDate, accessibleBranchIds
+        // Page and total come back in one statement; withTotal=false skips counting altogether
+        boolean withTotalFlag = !cursorMode && (withTotal == null || withTotal);
+        PagedResult<InterBranchTransferDTO> result = interBranchTransferRepository.findAll(
+            fromBranchId, toBranchId, status, fromDate, toDate, accessibleBranchIds,
+            cursorMode ? 0 : pageNum, pageSize, sortField, sortDirection, after, withTotalFlag
         );
-        
-        // Calculate pagination metadata
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
-        boolean isFirst = pageNum == 0;
-        boolean isLast = pageNum >= totalPages - 1;
-        int numberOfElements = transfers.size();
+        List<InterBranchTransferDTO> transfers = result.content();
         
         PageResponseDTO<InterBranchTransferDTO> pageResponse = new PageResponseDTO<>();
         pageResponse.setContent(transfers);
-        pageResponse.setTotalElements(totalElements);
-        pageResponse.setTotalPages(totalPages);
         pageResponse.setSize(pageSize);
+        pageResponse.setLast(!result.hasNext());
+        pageResponse.setNumberOfElements(transfers.size());
+        
+        if (cursorMode) {
+            pageResponse.setFirst(after == null);
+            pageResponse.setNextCursor(result.hasNext()
+                ? interBranchTransferRepository.cursorAfter(transfers.get(transfers.size() - 1), sortField, sortDirection).encode()
+                : null);
+            return pageResponse;
+        }
+        
         pageResponse.setNumber(pageNum);
-        pageResponse.setFirst(isFirst);
-        pageResponse.setLast(isLast);
-        pageResponse.setNumberOfElements(numberOfElements);
+        pageResponse.setFirst(pageNum == 0);
+        if (result.total() != null) {
+            pageResponse.setTotalElements(result.total());
+            pageResponse.setTotalPages((int) Math.ceil((double) result.total() / pageSize));
+        }
         
         return pageResponse;
     }
@@ -203,13 +215,13 @@ public class InterBranchTransferService {
         InterBranchTransferDTO existing = getTransferById(id);
 
         // Check branch access: user must have access to either from or to branch, unless super user
-        boolean isSuper = isSuperUser(userId);
-        if (!isSuper) {
+        AuthorizationContext authorization = authorizationContextCache.get(userId);
+        if (!authorization.isSuperUser()) {
             Long fromBranchId = existing.getFromBranch() != null ? existing.getFromBranch().getId() : null;
             Long toBranchId = existing.getToBranch() != null ? existing.getToBranch().getId() : null;
 
-            boolean hasFromAccess = fromBranchId != null && userBranchAccessRepository.hasAccessToBranch(userId, fromBranchId);
-            boolean hasToAccess = toBranchId != null && userBranchAccessRepository.hasAccessToBranch(userId, toBranchId);
+            boolean hasFromAccess = fromBranchId != null && authorization.hasAccessToBranch(fromBranchId);
+            boolean hasToAccess = toBranchId != null && authorization.hasAccessToBranch(toBranchId);
 
             if (!hasFromAccess && !hasToAccess) {
                 throw new ForbiddenException("Access denied. You do not have permission to update this transfer.");
@@ -229,9 +241,16 @@ public class InterBranchTransferService {
         if (updated == 0) {
             throw new ResourceNotFoundException("Inter-branch transfer not found or inactive with id: " + id);
         }
+        branchStatisticsCache.invalidateBranches(Arrays.asList(
+            existing.getFromBranch() != null ? existing.getFromBranch().getId() : null,
+            existing.getToBranch() != null ? existing.getToBranch().getId() : null));
 
-        // Return updated transfer
-        return getTransferById(id);
+        // Return the existing row with the written values applied
+        existing.setStatus(newStatus);
+        existing.setReferenceNumber(newReferenceNumber);
+        existing.setUpdatedAt(interBranchTransferRepository.findTimestamps(id).updatedAt());
+        existing.setUpdatedBy(new InterBranchTransferDTO.UserInfo(currentUser.getId(), currentUser.getUsername(), currentUser.getEmail()));
+        return existing;
     }
 }
 
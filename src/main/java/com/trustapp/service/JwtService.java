@@ -1,9 +1,11 @@
 package com.trustapp.service;
 
+import com.trustapp.model.VerifiedToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -26,6 +28,28 @@ public class JwtService {
     // Set to 200 years - tokens are revoked via database on logout
     private long refreshExpiration = 6307200000000L; // 200 years in milliseconds
     
+    // Key and parser are immutable and thread-safe, so they are built once instead of per call
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+    
+    public JwtService() {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser()
+            .verifyWith(signInKey)
+            .build();
+    }
+    
+    // Parses and verifies the token exactly once; throws JwtException (e.g. ExpiredJwtException) on failure
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+            token,
+            claims.getSubject(),
+            claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+            claims.getExpiration() != null ? claims.getExpiration().toInstant() : null
+        );
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -66,35 +90,24 @@ public class JwtService {
             .subject(userDetails.getUsername())
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSignInKey())
+            .signWith(signInKey)
             .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject() != null
+            && token.subject().equals(userDetails.getUsername())
+            && !token.isExpired();
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts
-            .parser()
-            .verifyWith(getSignInKey())
-            .build()
+        return jwtParser
             .parseSignedClaims(token)
             .getPayload();
     }
-    
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
 
@@ -0,0 +1,173 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trustapp.exception.TooManyRequestsException;
+import com.trustapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// In-memory token buckets per email and per client IP, checked before any password hashing or
+// database access on login. When an email's bucket runs dry the account is locked for lockout-minutes
+// through users.locked_until, written asynchronously at most once per lockout, so other nodes and
+// restarts honour it too. The lockout expires on its own; single failed attempts are not persisted.
+@Slf4j
+@Component
+public class LoginThrottle implements DisposableBean {
+    
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    
+    private final Cache<String, TokenBucket> emailBuckets;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final int emailCapacity;
+    private final double emailRefillPerNano;
+    private final int ipCapacity;
+    private final double ipRefillPerNano;
+    private final long lockoutMinutes;
+    
+    private final ThreadPoolExecutor persistExecutor;
+    
+    public LoginThrottle(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.login-throttle.email.capacity:5}") int emailCapacity,
+                         @Value("${app.login-throttle.email.refill-per-minute:1}") double emailRefillPerMinute,
+                         @Value("${app.login-throttle.ip.capacity:30}") int ipCapacity,
+                         @Value("${app.login-throttle.ip.refill-per-minute:10}") double ipRefillPerMinute,
+                         @Value("${app.login-throttle.maximum-keys:100000}") long maximumKeys,
+                         @Value("${app.login-throttle.email.lockout-minutes:15}") long lockoutMinutes) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPerNano = emailRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerNano = ipRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.lockoutMinutes = lockoutMinutes;
+        
+        // An idle bucket is full again after capacity / refill minutes, so it can be dropped
+        this.emailBuckets = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(Duration.ofMinutes((long) Math.ceil(emailCapacity / emailRefillPerMinute) + 1))
+            .build();
+        this.ipBuckets = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(Duration.ofMinutes((long) Math.ceil(ipCapacity / ipRefillPerMinute) + 1))
+            .build();
+        
+        this.persistExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000),
+            runnable -> {
+                Thread thread = new Thread(runnable, "login-lockout-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+    
+    // Takes one token from both the email and the IP bucket; throws before any BCrypt work if either is empty
+    public void acquire(String email, String clientIp) {
+        long now = System.nanoTime();
+        
+        String emailKey = normalize(email);
+        TokenBucket emailBucket = emailKey != null ? emailBuckets.get(emailKey, k -> new TokenBucket(emailCapacity, now)) : null;
+        if (emailBucket != null && !emailBucket.tryConsume(emailCapacity, emailRefillPerNano, now)) {
+            meterRegistry.counter("login.throttle.rejected", "key", "email").increment();
+            if (emailBucket.startLockout(now, TimeUnit.MINUTES.toNanos(lockoutMinutes))) {
+                persistLockout(emailKey);
+            }
+            throw new TooManyRequestsException("Too many login attempts for this account. Please try again later.");
+        }
+        
+        if (clientIp != null && !ipBuckets.get(clientIp, k -> new TokenBucket(ipCapacity, now))
+                .tryConsume(ipCapacity, ipRefillPerNano, now)) {
+            meterRegistry.counter("login.throttle.rejected", "key", "ip").increment();
+            throw new TooManyRequestsException("Too many login attempts from this address. Please try again later.");
+        }
+    }
+    
+    public void recordSuccess(String email) {
+        String emailKey = normalize(email);
+        if (emailKey != null) {
+            emailBuckets.invalidate(emailKey);
+        }
+    }
+    
+    // Best effort: if the writer is backed up the lockout is only enforced by this node's bucket
+    private void persistLockout(String emailKey) {
+        try {
+            persistExecutor.execute(() -> {
+                try {
+                    userRepository.lockTemporarily(emailKey, lockoutMinutes);
+                } catch (Exception e) {
+                    log.error("Failed to persist login lockout: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("login.throttle.persist.dropped").increment();
+        }
+    }
+    
+    // After an administrator unlocks an account
+    public void reset(String email) {
+        recordSuccess(email);
+    }
+    
+    @Override
+    public void destroy() {
+        persistExecutor.shutdown();
+    }
+    
+    private static String normalize(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+    
+    // Lock-free token bucket: refill and consume happen in a single CAS on an immutable state
+    static final class TokenBucket {
+        
+        private record State(double tokens, long refilledAtNanos) {
+        }
+        
+        private final AtomicReference<State> state;
+        private final AtomicLong lockoutEndsAtNanos;
+        
+        TokenBucket(int capacity, long nowNanos) {
+            this.state = new AtomicReference<>(new State(capacity, nowNanos));
+            this.lockoutEndsAtNanos = new AtomicLong(nowNanos);
+        }
+        
+        // True for the one caller that starts a new lockout; rejections during it return false
+        boolean startLockout(long nowNanos, long lockoutNanos) {
+            long endsAt = lockoutEndsAtNanos.get();
+            return nowNanos - endsAt >= 0 && lockoutEndsAtNanos.compareAndSet(endsAt, nowNanos + lockoutNanos);
+        }
+        
+        boolean tryConsume(int capacity, double refillPerNano, long nowNanos) {
+            while (true) {
+                State current = state.get();
+                long elapsed = Math.max(0L, nowNanos - current.refilledAtNanos());
+                double available = Math.min(capacity, current.tokens() + elapsed * refillPerNano);
+                if (available < 1.0) {
+                    return false;
+                }
+                State next = new State(available - 1.0, Math.max(nowNanos, current.refilledAtNanos()));
+                if (state.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
+
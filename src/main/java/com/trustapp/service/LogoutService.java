@@ -1,6 +1,7 @@
 package com.trustapp.service;
 
 import com.trustapp.model.User;
+import com.trustapp.model.VerifiedToken;
 import com.trustapp.repository.TokenRepository;
 import com.trustapp.repository.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,6 +20,7 @@ public class LogoutService implements LogoutHandler {
     private final TokenRepository tokenRepository;
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final TokenStatusCache tokenStatusCache;
 
     @Override
     public void logout(
@@ -43,13 +45,15 @@ public class LogoutService implements LogoutHandler {
             storedAccessToken.setExpired(true);
             storedAccessToken.setRevoked(true);
             tokenRepository.updateStatus(storedAccessToken);
+            tokenStatusCache.evict(jwt);
         }
         
         // Validate and revoke the refresh token
         if (refreshToken != null && !refreshToken.isBlank()) {
             try {
-                // Extract username from refresh token
-                String userEmail = jwtService.extractUsername(refreshToken);
+                // Parse and verify the refresh token once
+                VerifiedToken verifiedRefreshToken = jwtService.verify(refreshToken);
+                String userEmail = verifiedRefreshToken.subject();
                 
                 if (userEmail != null) {
                     // Find user
@@ -57,7 +61,7 @@ public class LogoutService implements LogoutHandler {
                     
                     if (user != null) {
                         // Validate refresh token (check signature, expiration, etc.)
-                        if (jwtService.isTokenValid(refreshToken, user)) {
+                        if (jwtService.isTokenValid(verifiedRefreshToken, user)) {
                             // Find token in database
                             var storedRefreshToken = tokenRepository.findRefreshToken(refreshToken).orElse(null);
                             if (storedRefreshToken != null && !storedRefreshToken.getExpired() && !storedRefreshToken.getRevoked()) {
@@ -16,9 +16,14 @@ import java.util.List;
 public class PaymentModeService {
     
     private final PaymentModeRepository paymentModeRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final BranchStatisticsCache branchStatisticsCache;
     
-    public PaymentModeService(PaymentModeRepository paymentModeRepository) {
+    public PaymentModeService(PaymentModeRepository paymentModeRepository, ReferenceDataCache referenceDataCache,
+                              BranchStatisticsCache branchStatisticsCache) {
         this.paymentModeRepository = paymentModeRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
     public List<PaymentModeDTO> getAllPaymentModes(boolean includeInactive) {
@@ -70,6 +75,9 @@ public class PaymentModeService {
         paymentModeDTO.setIsActive(updateDTO.getIsActive() != null ? updateDTO.getIsActive() : existingPaymentMode.getIsActive());
         
         paymentModeRepository.update(id, paymentModeDTO);
+        referenceDataCache.invalidatePaymentMode(id);
+        // Payment mode names appear in every branch's donation breakdown
+        branchStatisticsCache.invalidateAll();
         return getPaymentModeById(id);
     }
     
@@ -80,6 +88,7 @@ public class PaymentModeService {
         
         // Perform soft delete
         paymentModeRepository.delete(id);
+        referenceDataCache.invalidatePaymentMode(id);
     }
     
     public List<PaymentModeDropdownDTO> getAllPaymentModesForDropdown() {
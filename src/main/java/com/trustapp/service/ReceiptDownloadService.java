@@ -0,0 +1,181 @@
+package com.trustapp.service;
+
+import com.trustapp.exception.ResourceNotFoundException;
+import com.trustapp.model.ReceiptFile;
+import com.trustapp.repository.DonationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Serves stored receipts with conditional GET and single byte ranges.
+// The ETag of a content-addressed file comes from its path, so a matching If-None-Match is answered
+// with 304 from the database row alone. File bodies go through Tomcat's sendfile when the connector
+// offers it (kernel copy, no heap buffers) and through FileChannel.transferTo otherwise.
+@Service
+public class ReceiptDownloadService {
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    // Receipts can be reprinted, so clients revalidate every time; with the ETag that costs a 304
+    private static final String CACHE_CONTROL = "private, no-cache";
+    
+    private final DonationRepository donationRepository;
+    private final ReceiptStorage receiptStorage;
+    private final MeterRegistry meterRegistry;
+    
+    public ReceiptDownloadService(DonationRepository donationRepository,
+                                  ReceiptStorage receiptStorage,
+                                  MeterRegistry meterRegistry) {
+        this.donationRepository = donationRepository;
+        this.receiptStorage = receiptStorage;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public void download(Long donationId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ReceiptFile receipt = donationRepository.findReceiptFile(donationId)
+            .orElseThrow(() -> new ResourceNotFoundException("Receipt not found for this donation transaction"));
+        
+        String etag = ReceiptStorage.etag(receipt.filePath());
+        if (etag != null && notModified(request, response, etag)) {
+            return;
+        }
+        
+        Path file = receiptStorage.resolve(receipt.filePath())
+            .orElseThrow(() -> new ResourceNotFoundException("Receipt not found for this donation transaction"));
+        long size = Files.size(file);
+        if (etag == null) {
+            // Files from before content addressing fall back to a weak size/mtime validator
+            etag = "W/\"" + size + "-" + Files.getLastModifiedTime(file).toMillis() + "\"";
+            if (notModified(request, response, etag)) {
+                return;
+            }
+        }
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("receipt-" + receipt.receiptNumber().replaceAll("[^A-Za-z0-9._-]", "_") + ".pdf")
+            .build()
+            .toString());
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        
+        long start = 0;
+        long length = size;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (range.getRangeStart(size) >= size) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                count("range_not_satisfiable");
+                return;
+            }
+            start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            length = end - start + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        response.setContentLengthLong(length);
+        count(range != null ? "partial" : "full");
+        
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        send(file, start, length, request, response);
+    }
+    
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        count("not_modified");
+        return true;
+    }
+    
+    // If-None-Match uses weak comparison: W/"x" matches "x"
+    private static boolean matches(String header, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Only a single range is honoured; multiple ranges, a malformed header, or an If-Range that no
+    // longer matches get the whole file, which RFC 9110 allows
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && (etag.startsWith("W/") || !ifRange.trim().equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static void send(Path file, long start, long length, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+    
+    private void count(String outcome) {
+        meterRegistry.counter("receipts.downloads", "outcome", outcome).increment();
+    }
+}
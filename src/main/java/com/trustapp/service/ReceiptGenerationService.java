@@ -0,0 +1,303 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trustapp.dto.DonationDTO;
+import com.trustapp.dto.ReceiptBatchRequestDTO;
+import com.trustapp.dto.ReceiptDTO;
+import com.trustapp.dto.ReceiptJobDTO;
+import com.trustapp.exception.DuplicateResourceException;
+import com.trustapp.exception.ResourceNotFoundException;
+import com.trustapp.exception.ServiceBusyException;
+import com.trustapp.exception.ValidationException;
+import com.trustapp.model.ReceiptJob;
+import com.trustapp.repository.DonationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Generates receipt PDFs on a bounded pool of render workers, fed either by a single request
+// or by bulk jobs for a branch and date range.
+// Bulk jobs wait in their own small queue and run one at a time on a job thread. The job pages through
+// donations without a receipt and hands each one to the render pool, holding at most workers * 2
+// renders in flight, so the rest of the render queue stays free for single requests.
+// A single request waits for its render up to single-timeout-ms; when the render queue is full it
+// gets a ServiceBusyException (503). No request thread ever runs a render or a bulk job.
+// Jobs live in memory only. Rendering is idempotent, so a job lost in a restart is simply submitted again.
+@Slf4j
+@Service
+public class ReceiptGenerationService implements DisposableBean {
+    
+    private final DonationRepository donationRepository;
+    private final ReceiptRenderer receiptRenderer;
+    private final ReceiptStorage receiptStorage;
+    private final AuthenticationService authenticationService;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long singleTimeoutMillis;
+    
+    private final ThreadPoolExecutor jobExecutor;
+    private final ThreadPoolExecutor renderExecutor;
+    private final Semaphore bulkInFlight;
+    private final Cache<String, ReceiptJob> jobs;
+    private final Timer renderTimer;
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    
+    public ReceiptGenerationService(DonationRepository donationRepository,
+                                    ReceiptRenderer receiptRenderer,
+                                    ReceiptStorage receiptStorage,
+                                    AuthenticationService authenticationService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.receipts.workers:2}") int workers,
+                                    @Value("${app.receipts.render-queue-capacity:64}") int renderQueueCapacity,
+                                    @Value("${app.receipts.max-queued-jobs:20}") int maxQueuedJobs,
+                                    @Value("${app.receipts.batch-size:200}") int batchSize,
+                                    @Value("${app.receipts.single-timeout-ms:10000}") long singleTimeoutMillis,
+                                    @Value("${app.receipts.job-retention-hours:24}") long jobRetentionHours) {
+        this.donationRepository = donationRepository;
+        this.receiptRenderer = receiptRenderer;
+        this.receiptStorage = receiptStorage;
+        this.authenticationService = authenticationService;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.singleTimeoutMillis = singleTimeoutMillis;
+        
+        this.jobExecutor = pool("receipt-job-", 1, maxQueuedJobs);
+        this.renderExecutor = pool("receipt-render-", workers, Math.max(renderQueueCapacity, workers * 2 + 1));
+        this.bulkInFlight = new Semaphore(workers * 2);
+        this.jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(jobRetentionHours))
+            .build();
+        
+        this.renderTimer = Timer.builder("receipts.render").register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, jobExecutor, "receiptJobs");
+        ExecutorServiceMetrics.monitor(meterRegistry, renderExecutor, "receiptRender");
+        meterRegistry.gauge("receipts.jobs.running", runningJobs);
+    }
+    
+    private static ThreadPoolExecutor pool(String name, int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, name + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+    
+    public ReceiptDTO generateReceipt(Long donationId) {
+        DonationDTO donation = donationRepository.findById(donationId)
+            .orElseThrow(() -> new ResourceNotFoundException("Donation transaction not found with id: " + donationId));
+        if (Boolean.TRUE.equals(donation.getReceiptGenerated())) {
+            throw new DuplicateResourceException("Receipt already generated for this donation transaction");
+        }
+        
+        Future<ReceiptDTO> future;
+        try {
+            future = renderExecutor.submit(() -> generate(donation, "single"));
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("receipts.rejected", "reason", "queue_full").increment();
+            throw new ServiceBusyException("Receipt generation is busy, please retry shortly");
+        }
+        
+        try {
+            ReceiptDTO receipt = future.get(singleTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (receipt == null) {
+                throw new DuplicateResourceException("Receipt already generated for this donation transaction");
+            }
+            return receipt;
+        } catch (TimeoutException e) {
+            // Left running: the receipt is recorded when it finishes and the client can retry the download
+            meterRegistry.counter("receipts.rejected", "reason", "timeout").increment();
+            throw new ServiceBusyException("Receipt generation is taking longer than expected, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Receipt generation was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Receipt generation failed for donation " + donationId, e.getCause());
+        }
+    }
+    
+    public ReceiptJobDTO submitJob(ReceiptBatchRequestDTO request) {
+        if (request.getFromDate().isAfter(request.getToDate())) {
+            throw new ValidationException("From date must not be after to date");
+        }
+        
+        Long requestedBy = authenticationService.getCurrentUser().getId();
+        ReceiptJob job = new ReceiptJob(request.getBranchId(), request.getFromDate(), request.getToDate(), requestedBy);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            meterRegistry.counter("receipts.rejected", "reason", "job_queue_full").increment();
+            throw new ServiceBusyException("Too many receipt jobs are queued, please retry later");
+        }
+        return toDTO(job);
+    }
+    
+    public ReceiptJobDTO getJob(String jobId) {
+        ReceiptJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Receipt job not found with id: " + jobId);
+        }
+        return toDTO(job);
+    }
+    
+    // Most recent first
+    public List<ReceiptJobDTO> getJobs() {
+        return jobs.asMap().values().stream()
+            .sorted(Comparator.comparing(ReceiptJob::getSubmittedAt).reversed())
+            .map(this::toDTO)
+            .toList();
+    }
+    
+    private void run(ReceiptJob job) {
+        runningJobs.incrementAndGet();
+        try {
+            job.start(donationRepository.countWithoutReceipt(job.getBranchId(), job.getFromDate(), job.getToDate()));
+            log.info("Receipt job {} started: {} donations without receipt", job.getId(), job.getTotal());
+            
+            long afterId = 0;
+            while (true) {
+                List<DonationDTO> batch = donationRepository.findWithoutReceipt(
+                    job.getBranchId(), job.getFromDate(), job.getToDate(), afterId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                
+                List<Future<?>> renders = new ArrayList<>(batch.size());
+                for (DonationDTO donation : batch) {
+                    renders.add(submitBulk(job, donation));
+                }
+                // A failed render is counted on the job and skipped; the next run picks it up again
+                for (Future<?> render : renders) {
+                    try {
+                        render.get();
+                    } catch (ExecutionException e) {
+                        // Already recorded by the render task
+                    }
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            
+            job.complete();
+            log.info("Receipt job {} completed: {} generated, {} failed", job.getId(), job.getGenerated(), job.getFailed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted");
+        } catch (Exception e) {
+            log.error("Receipt job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.fail(e.getMessage());
+        } finally {
+            runningJobs.decrementAndGet();
+        }
+    }
+    
+    // Blocks the job thread, never a request thread, while workers * 2 bulk renders are in flight.
+    // If single requests have filled the queue meanwhile, the job backs off and tries again.
+    private Future<?> submitBulk(ReceiptJob job, DonationDTO donation) throws InterruptedException {
+        bulkInFlight.acquire();
+        Runnable render = () -> {
+            try {
+                if (generate(donation, "bulk") != null) {
+                    job.recordGenerated();
+                }
+            } catch (RuntimeException e) {
+                job.recordFailed();
+                log.warn("Receipt job {}: donation {} failed: {}", job.getId(), donation.getId(), e.getMessage());
+                throw e;
+            } finally {
+                bulkInFlight.release();
+            }
+        };
+        while (true) {
+            try {
+                return renderExecutor.submit(render);
+            } catch (RejectedExecutionException e) {
+                if (renderExecutor.isShutdown()) {
+                    bulkInFlight.release();
+                    throw e;
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+    
+    // Renders, stores and records one receipt. Null when another run recorded it first.
+    private ReceiptDTO generate(DonationDTO donation, String source) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            byte[] pdf = receiptRenderer.render(donation);
+            String filePath = receiptStorage.store(pdf);
+            LocalDateTime generatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            
+            if (donationRepository.markReceiptGenerated(donation.getId(), filePath, generatedAt) == 0) {
+                outcome = "skipped";
+                return null;
+            }
+            outcome = "success";
+            // Runs off the request thread; the controller adds the download link
+            return new ReceiptDTO(donation.getId(), donation.getReceiptNumber(), filePath, generatedAt, null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write receipt for donation " + donation.getId(), e);
+        } finally {
+            sample.stop(renderTimer);
+            meterRegistry.counter("receipts.generated", "source", source, "outcome", outcome).increment();
+        }
+    }
+    
+    private ReceiptJobDTO toDTO(ReceiptJob job) {
+        return new ReceiptJobDTO(
+            job.getId(),
+            job.getStatus().name(),
+            job.getBranchId(),
+            job.getFromDate(),
+            job.getToDate(),
+            job.getStatus() == ReceiptJob.Status.QUEUED ? null : job.getTotal(),
+            job.getGenerated(),
+            job.getFailed(),
+            job.throughput(),
+            job.getError(),
+            job.getRequestedBy(),
+            job.getSubmittedAt(),
+            job.getStartedAt(),
+            job.getFinishedAt()
+        );
+    }
+    
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        renderExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.DonationDTO;
+import com.trustapp.model.ReceiptTemplate;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Renders one donation into a PDF receipt. The template is read and compiled once at startup;
+// a render only fills in the field values and lays out text, so it is safe to call from many threads.
+@Component
+public class ReceiptRenderer {
+    
+    static final Set<String> FIELDS = Set.of(
+        "trustName", "trustAddress", "receiptNumber", "donationDate", "donorName", "donorAddress",
+        "panNumber", "donorPhone", "donorEmail", "amount", "paymentMode", "purpose", "subCategory",
+        "event", "branchCode", "branchName", "notes"
+    );
+    
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final float MARGIN = 56;
+    private static final float HEADING_SIZE = 15;
+    private static final float TEXT_SIZE = 11;
+    private static final float LEADING = 1.45f;
+    
+    private final ReceiptTemplate template;
+    private final String trustName;
+    private final String trustAddress;
+    
+    public ReceiptRenderer(@Value("${app.receipts.template:classpath:templates/receipt.txt}") Resource templateResource,
+                           @Value("${app.receipts.trust-name:}") String trustName,
+                           @Value("${app.receipts.trust-address:}") String trustAddress) throws IOException {
+        this.template = ReceiptTemplate.compile(templateResource.getContentAsString(StandardCharsets.UTF_8), FIELDS);
+        this.trustName = trustName;
+        this.trustAddress = trustAddress;
+    }
+    
+    public byte[] render(DonationDTO donation) throws IOException {
+        Map<String, String> values = values(donation);
+        
+        try (PDDocument document = new PDDocument()) {
+            // Standard 14 fonts are not embedded and cost nothing to create; one pair per document
+            // avoids sharing PDFBox objects between threads
+            PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+            
+            PDRectangle pageSize = PDRectangle.A4;
+            float width = pageSize.getWidth() - 2 * MARGIN;
+            PDPage page = new PDPage(pageSize);
+            document.addPage(page);
+            PDPageContentStream content = new PDPageContentStream(document, page);
+            float y = pageSize.getHeight() - MARGIN;
+            
+            try {
+                for (ReceiptTemplate.Line line : template.lines()) {
+                    if (line.style() == ReceiptTemplate.Style.BLANK) {
+                        y -= TEXT_SIZE;
+                        continue;
+                    }
+                    String text = line.render(values);
+                    if (text == null) {
+                        continue;
+                    }
+                    
+                    PDType1Font font = line.style() == ReceiptTemplate.Style.HEADING ? bold : regular;
+                    float size = line.style() == ReceiptTemplate.Style.HEADING ? HEADING_SIZE : TEXT_SIZE;
+                    for (String wrapped : wrap(encodable(text, font), font, size, width)) {
+                        y -= size * LEADING;
+                        if (y < MARGIN) {
+                            content.close();
+                            page = new PDPage(pageSize);
+                            document.addPage(page);
+                            content = new PDPageContentStream(document, page);
+                            y = pageSize.getHeight() - MARGIN - size * LEADING;
+                        }
+                        content.beginText();
+                        content.setFont(font, size);
+                        content.newLineAtOffset(MARGIN, y);
+                        content.showText(wrapped);
+                        content.endText();
+                    }
+                }
+            } finally {
+                content.close();
+            }
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+    
+    private Map<String, String> values(DonationDTO donation) {
+        Map<String, String> values = new HashMap<>();
+        values.put("trustName", trustName);
+        values.put("trustAddress", trustAddress);
+        values.put("receiptNumber", donation.getReceiptNumber());
+        values.put("donationDate", donation.getDonationDate() != null ? DATE_FORMAT.format(donation.getDonationDate()) : null);
+        values.put("donorName", donation.getDonorName());
+        values.put("donorAddress", donation.getDonorAddress());
+        values.put("panNumber", donation.getPanNumber());
+        values.put("donorPhone", donation.getDonorPhone());
+        values.put("donorEmail", donation.getDonorEmail());
+        values.put("amount", donation.getAmount() != null
+            ? String.format("%,.2f", donation.getAmount().setScale(2, RoundingMode.HALF_UP)) : null);
+        values.put("paymentMode", donation.getPaymentMode() != null ? donation.getPaymentMode().getName() : null);
+        values.put("purpose", donation.getPurpose() != null ? donation.getPurpose().getName() : null);
+        values.put("subCategory", donation.getSubCategory() != null ? donation.getSubCategory().getName() : null);
+        values.put("event", donation.getEvent() != null ? donation.getEvent().getName() : null);
+        values.put("branchCode", donation.getBranch() != null ? donation.getBranch().getCode() : null);
+        values.put("branchName", donation.getBranch() != null ? donation.getBranch().getName() : null);
+        values.put("notes", donation.getNotes());
+        return values;
+    }
+    
+    // The standard fonts only cover WinAnsi; anything else (e.g. a name in Devanagari) becomes '?'
+    // rather than failing the receipt
+    private static String encodable(String text, PDType1Font font) throws IOException {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            String character = new String(Character.toChars(codePoint));
+            if (Character.isISOControl(codePoint)) {
+                result.append(' ');
+            } else {
+                try {
+                    font.encode(character);
+                    result.append(character);
+                } catch (IllegalArgumentException e) {
+                    result.append('?');
+                }
+            }
+            i += Character.charCount(codePoint);
+        }
+        return result.toString();
+    }
+    
+    // Greedy word wrap to the printable width; a single overlong word is left to overflow
+    private static List<String> wrap(String text, PDType1Font font, float size, float width) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String word : text.split(" ")) {
+            String candidate = current.isEmpty() ? word : current + " " + word;
+            if (!current.isEmpty() && font.getStringWidth(candidate) / 1000 * size > width) {
+                lines.add(current.toString());
+                current = new StringBuilder(word);
+            } else {
+                current = new StringBuilder(candidate);
+            }
+        }
+        lines.add(current.toString());
+        return lines;
+    }
+}
@@ -0,0 +1,75 @@
+package com.trustapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Content-addressed receipt files: a PDF is stored under ab/cd/<sha-256>.pdf, so a stored file never
+// changes, identical content is written once, and the hash in the path doubles as a strong ETag
+// that can be answered from the database row without touching the disk.
+@Component
+public class ReceiptStorage {
+    
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("(?:^|/)([0-9a-f]{64})\\.pdf$");
+    
+    private final Path root;
+    
+    public ReceiptStorage(@Value("${app.receipts.storage-dir:receipts}") String storageDir) {
+        this.root = Paths.get(storageDir).toAbsolutePath().normalize();
+    }
+    
+    // Returns the path relative to the storage directory, as kept in donations.receipt_file_path.
+    // The file is written to a temp file and moved into place so a reader never sees a partial file.
+    public String store(byte[] content) throws IOException {
+        String hash = HexFormat.of().formatHex(sha256(content));
+        String relative = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".pdf";
+        Path target = root.resolve(relative);
+        if (Files.exists(target)) {
+            return relative;
+        }
+        
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".receipt-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return relative;
+    }
+    
+    // Empty for paths outside the storage directory or files that are gone
+    public Optional<Path> resolve(String relativePath) {
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+    
+    // Strong ETag of a content-addressed path; null for files stored under another naming scheme
+    public static String etag(String relativePath) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(relativePath);
+        return matcher.find() ? "\"" + matcher.group(1) + "\"" : null;
+    }
+    
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.BranchDTO;
+import com.trustapp.dto.DonationPurposeDTO;
+import com.trustapp.dto.DonationSubCategoryDTO;
+import com.trustapp.dto.EventDTO;
+import com.trustapp.dto.ExpenseCategoryDTO;
+import com.trustapp.dto.PaymentModeDTO;
+import com.trustapp.repository.BranchRepository;
+import com.trustapp.repository.DonationPurposeRepository;
+import com.trustapp.repository.DonationSubCategoryRepository;
+import com.trustapp.repository.EventRepository;
+import com.trustapp.repository.ExpenseCategoryRepository;
+import com.trustapp.repository.PaymentModeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Read-through cache of the active master-data rows used to validate donation, transfer and expense writes.
+// Only active rows are cached (findById filters on is_active), unknown ids always go to the database.
+// Cached DTOs are shared and must not be modified by callers.
+@Slf4j
+@Component
+public class ReferenceDataCache {
+    
+    private final Table<PaymentModeDTO> paymentModes;
+    private final Table<DonationPurposeDTO> purposes;
+    private final Table<DonationSubCategoryDTO> subCategories;
+    private final Table<EventDTO> events;
+    private final Table<BranchDTO> branches;
+    private final Table<ExpenseCategoryDTO> expenseCategories;
+    
+    private final PaymentModeRepository paymentModeRepository;
+    private final DonationPurposeRepository donationPurposeRepository;
+    private final DonationSubCategoryRepository donationSubCategoryRepository;
+    private final EventRepository eventRepository;
+    private final BranchRepository branchRepository;
+    private final ExpenseCategoryRepository expenseCategoryRepository;
+    private final int branchWarmLimit;
+    
+    public ReferenceDataCache(PaymentModeRepository paymentModeRepository,
+                              DonationPurposeRepository donationPurposeRepository,
+                              DonationSubCategoryRepository donationSubCategoryRepository,
+                              EventRepository eventRepository,
+                              BranchRepository branchRepository,
+                              ExpenseCategoryRepository expenseCategoryRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.reference-cache.branch-warm-limit:10000}") int branchWarmLimit) {
+        this.paymentModeRepository = paymentModeRepository;
+        this.donationPurposeRepository = donationPurposeRepository;
+        this.donationSubCategoryRepository = donationSubCategoryRepository;
+        this.eventRepository = eventRepository;
+        this.branchRepository = branchRepository;
+        this.expenseCategoryRepository = expenseCategoryRepository;
+        this.branchWarmLimit = branchWarmLimit;
+        
+        this.paymentModes = new Table<>("paymentModes", paymentModeRepository::findById, meterRegistry);
+        this.purposes = new Table<>("donationPurposes", donationPurposeRepository::findById, meterRegistry);
+        this.subCategories = new Table<>("donationSubCategories", donationSubCategoryRepository::findById, meterRegistry);
+        this.events = new Table<>("events", eventRepository::findById, meterRegistry);
+        this.branches = new Table<>("branches", branchRepository::findById, meterRegistry);
+        this.expenseCategories = new Table<>("expenseCategories", expenseCategoryRepository::findById, meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        try {
+            paymentModes.warm(paymentModeRepository.findAll(false), PaymentModeDTO::getId);
+            purposes.warm(donationPurposeRepository.findAll(false), DonationPurposeDTO::getId);
+            subCategories.warm(donationSubCategoryRepository.findAll(null, false), DonationSubCategoryDTO::getId);
+            events.warm(eventRepository.findAll(null, null, false), EventDTO::getId);
+            branches.warm(branchRepository.findAll(false, null, null, null, null,
+                0, branchWarmLimit, "name", "ASC", false).content(), BranchDTO::getId);
+            expenseCategories.warm(expenseCategoryRepository.findAll(false), ExpenseCategoryDTO::getId);
+        } catch (Exception e) {
+            // Lookups still read through; a failed warm-up only costs the first misses
+            log.warn("Reference data cache warm-up failed: {}", e.getMessage());
+        }
+    }
+    
+    public Optional<PaymentModeDTO> findPaymentMode(Long id) {
+        return paymentModes.get(id);
+    }
+    
+    public Optional<DonationPurposeDTO> findPurpose(Long id) {
+        return purposes.get(id);
+    }
+    
+    public Optional<DonationSubCategoryDTO> findSubCategory(Long id) {
+        return subCategories.get(id);
+    }
+    
+    public Optional<EventDTO> findEvent(Long id) {
+        return events.get(id);
+    }
+    
+    public Optional<BranchDTO> findBranch(Long id) {
+        return branches.get(id);
+    }
+    
+    public Optional<ExpenseCategoryDTO> findExpenseCategory(Long id) {
+        return expenseCategories.get(id);
+    }
+    
+    // Called by the master-data services after an update or delete of the row
+    public void invalidatePaymentMode(Long id) {
+        paymentModes.invalidate(id);
+    }
+    
+    public void invalidatePurpose(Long id) {
+        purposes.invalidate(id);
+    }
+    
+    public void invalidateSubCategory(Long id) {
+        subCategories.invalidate(id);
+    }
+    
+    public void invalidateEvent(Long id) {
+        events.invalidate(id);
+    }
+    
+    public void invalidateBranch(Long id) {
+        branches.invalidate(id);
+    }
+    
+    public void invalidateExpenseCategory(Long id) {
+        expenseCategories.invalidate(id);
+    }
+    
+    // One master-data table. Every invalidation bumps the version; a load that started under an older
+    // version is returned to its caller but not cached, so a row read before a concurrent update
+    // cannot be re-cached after the invalidation.
+    private static final class Table<T> {
+        
+        private final Function<Long, Optional<T>> loader;
+        private final Map<Long, T> entries = new ConcurrentHashMap<>();
+        private long version;
+        
+        private Table(String name, Function<Long, Optional<T>> loader, MeterRegistry meterRegistry) {
+            this.loader = loader;
+            meterRegistry.gaugeMapSize("reference.cache.size", Tags.of("table", name), entries);
+        }
+        
+        Optional<T> get(Long id) {
+            T cached = entries.get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            
+            long loadVersion = version();
+            Optional<T> loaded = loader.apply(id);
+            loaded.ifPresent(value -> put(id, value, loadVersion));
+            return loaded;
+        }
+        
+        synchronized void warm(List<T> rows, Function<T, Long> idOf) {
+            for (T row : rows) {
+                entries.putIfAbsent(idOf.apply(row), row);
+            }
+        }
+        
+        // Inside a transaction the entry is dropped again after completion, so a reader cannot
+        // re-cache the pre-commit row in between
+        void invalidate(Long id) {
+            evict(id);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evict(id);
+                    }
+                });
+            }
+        }
+        
+        private synchronized long version() {
+            return version;
+        }
+        
+        private synchronized void put(Long id, T value, long loadVersion) {
+            if (version == loadVersion) {
+                entries.put(id, value);
+            }
+        }
+        
+        private synchronized void evict(Long id) {
+            version++;
+            entries.remove(id);
+        }
+    }
+}
+
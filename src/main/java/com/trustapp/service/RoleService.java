@@ -18,10 +18,13 @@ public class RoleService {
     
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final AuthorizationContextCache authorizationContextCache;
     
-    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository,
+                       AuthorizationContextCache authorizationContextCache) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.authorizationContextCache = authorizationContextCache;
     }
     
     public List<RoleDTO> getAllRoles() {
@@ -64,6 +67,7 @@ public class RoleService {
         role.setIsSystemRole(roleCreateDTO.getIsSystemRole() != null ? roleCreateDTO.getIsSystemRole() : false);
         
         Long roleId = roleRepository.save(role);
+        authorizationContextCache.invalidateAll();
         
         return getRoleById(roleId);
     }
@@ -92,6 +96,9 @@ public class RoleService {
         
         roleRepository.update(role);
         
+        // A role code change can make or unmake SUPER_USER
+        authorizationContextCache.invalidateAll();
+        
         return getRoleById(id);
     }
 }
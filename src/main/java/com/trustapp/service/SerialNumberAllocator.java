@@ -0,0 +1,245 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trustapp.dto.SerialNumberConfigDTO;
+import com.trustapp.exception.ResourceNotFoundException;
+import com.trustapp.exception.ValidationException;
+import com.trustapp.model.SerialNumber;
+import com.trustapp.model.SerialNumberBlock;
+import com.trustapp.repository.SerialNumberConfigRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Hands out serial numbers from blocks reserved in serial_number_sequences.
+// A sequence is scoped by entity type, by branch when the format pattern uses {BRANCH}, and by
+// financial year when it uses {FY} (calendar year otherwise), so branches no longer share a counter.
+// Each block is reserved in its own short REQUIRES_NEW transaction and numbers within a block are
+// claimed with a lock-free increment. Numbers of a rolled-back transaction or of an unused block tail
+// are skipped. Entity types listed as strict reserve one number inside the caller's transaction instead,
+// which keeps them gap-free.
+// A refill needs a pooled connection of its own, so next() must not be called while the caller holds one
+// in an open transaction: under load every connection would be held by a thread waiting for the refill.
+// Writes that need a number go through inTransaction(), which takes it before the business transaction opens.
+@Component
+public class SerialNumberAllocator {
+    
+    private static final String DEFAULT_FORMAT_PATTERN = "{PREFIX}-{YEAR}-{SEQUENCE}";
+    
+    private final SerialNumberConfigRepository serialNumberConfigRepository;
+    private final TransactionTemplate blockTransaction;
+    private final TransactionTemplate businessTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int blockSize;
+    private final Set<String> strictEntityTypes;
+    private final int fiscalYearStartMonth;
+    private final Cache<String, SerialNumberConfigDTO> configs;
+    
+    private final Map<String, SequenceRange> ranges = new ConcurrentHashMap<>();
+    private final Map<String, Object> refillLocks = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    
+    public SerialNumberAllocator(SerialNumberConfigRepository serialNumberConfigRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.serial-number.block-size:20}") int blockSize,
+                                 @Value("${app.serial-number.strict-entity-types:}") String strictEntityTypes,
+                                 @Value("${app.serial-number.fiscal-year-start-month:4}") int fiscalYearStartMonth,
+                                 @Value("${app.serial-number.config-ttl-seconds:300}") long configTtlSeconds) {
+        this.serialNumberConfigRepository = serialNumberConfigRepository;
+        this.blockTransaction = new TransactionTemplate(transactionManager);
+        this.blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.businessTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.blockSize = blockSize;
+        this.strictEntityTypes = Arrays.stream(strictEntityTypes.split(","))
+            .map(String::trim)
+            .filter(type -> !type.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        this.fiscalYearStartMonth = fiscalYearStartMonth;
+        this.configs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(configTtlSeconds))
+            .build();
+    }
+    
+    // Runs work in a new transaction with the next number of the scope. Strict entity types reserve the number
+    // inside that transaction; all others take it from the block before the transaction opens.
+    // Throws ResourceNotFoundException when the entity type has no serial number config.
+    public <T> T inTransaction(String entityType, Long branchId, String branchCode, Function<SerialNumber, T> work) {
+        if (strictEntityTypes.contains(entityType)) {
+            return businessTransaction.execute(status -> work.apply(nextOrNotFound(entityType, branchId, branchCode)));
+        }
+        SerialNumber serialNumber = nextOrNotFound(entityType, branchId, branchCode);
+        return businessTransaction.execute(status -> work.apply(serialNumber));
+    }
+    
+    public SerialNumber next(String entityType) {
+        return next(entityType, null, null);
+    }
+    
+    // Throws IllegalStateException when the entity type has no serial number config
+    public SerialNumber next(String entityType, Long branchId, String branchCode) {
+        long version = version(entityType);
+        SerialNumberConfigDTO config = config(entityType, version);
+        String pattern = config.getFormatPattern() != null ? config.getFormatPattern() : DEFAULT_FORMAT_PATTERN;
+        
+        boolean branchScoped = pattern.contains("{BRANCH}");
+        if (branchScoped && branchId == null) {
+            throw new ValidationException("A branch is required to generate a serial number for " + entityType);
+        }
+        long scopeBranchId = branchScoped ? branchId : 0;
+        String scopeBranchCode = branchScoped ? branchCode : null;
+        int periodYear = pattern.contains("{FY}") ? fiscalYearOf(LocalDate.now()) : LocalDate.now().getYear();
+        
+        if (strictEntityTypes.contains(entityType)) {
+            // Joins the caller's transaction, or runs on its own when there is none
+            int sequence = businessTransaction.execute(status ->
+                serialNumberConfigRepository.reserveSequences(entityType, scopeBranchId, periodYear, 1));
+            SerialNumberBlock block = block(config, pattern, scopeBranchCode, periodYear, sequence, sequence);
+            return new SerialNumber(block.format(sequence), periodYear, sequence);
+        }
+        
+        // Fast path: claim a number from this node's current block of the scope
+        String scope = entityType + ":" + scopeBranchId + ":";
+        String key = scope + periodYear;
+        SequenceRange range = ranges.get(key);
+        int sequence = range != null ? range.claim() : -1;
+        
+        while (sequence < 0) {
+            synchronized (refillLocks.computeIfAbsent(scope, s -> new Object())) {
+                range = ranges.get(key);
+                sequence = range != null ? range.claim() : -1;
+                if (sequence < 0) {
+                    int last = reserve(entityType, scopeBranchId, periodYear);
+                    range = new SequenceRange(block(config, pattern, scopeBranchCode, periodYear, last - blockSize + 1, last));
+                    publish(entityType, scope, key, range, version);
+                    sequence = range.claim();
+                }
+            }
+        }
+        
+        return new SerialNumber(range.block.format(sequence), periodYear, sequence);
+    }
+    
+    private SerialNumber nextOrNotFound(String entityType, Long branchId, String branchCode) {
+        try {
+            return next(entityType, branchId, branchCode);
+        } catch (IllegalStateException e) {
+            throw new ResourceNotFoundException("Serial number config not found for entity: " + entityType);
+        }
+    }
+    
+    // Drops this node's cached config and unused numbers of an entity type, e.g. after its prefix or format changed.
+    // Inside a transaction they are dropped again after completion, so a next() running before the commit
+    // cannot keep the old config cached.
+    public void discard(String entityType) {
+        evict(entityType);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(entityType);
+                }
+            });
+        }
+    }
+    
+    // Every discard bumps the entity type's version. A config or block obtained under an older version is
+    // still used by the call that obtained it, but not cached, so a refill racing with a discard cannot
+    // reinsert numbers built from the old config.
+    private synchronized long version(String entityType) {
+        return versions.getOrDefault(entityType, 0L);
+    }
+    
+    private SerialNumberConfigDTO config(String entityType, long version) {
+        SerialNumberConfigDTO cached = configs.getIfPresent(entityType);
+        if (cached != null) {
+            return cached;
+        }
+        SerialNumberConfigDTO loaded = loadConfig(entityType);
+        synchronized (this) {
+            if (version(entityType) == version) {
+                configs.put(entityType, loaded);
+            }
+        }
+        return loaded;
+    }
+    
+    private synchronized void publish(String entityType, String scope, String key, SequenceRange range, long version) {
+        if (version(entityType) == version) {
+            // A new period's block replaces the previous period's leftovers
+            ranges.keySet().removeIf(k -> k.startsWith(scope) && !k.equals(key));
+            ranges.put(key, range);
+        }
+    }
+    
+    private synchronized void evict(String entityType) {
+        versions.merge(entityType, 1L, Long::sum);
+        configs.invalidate(entityType);
+        ranges.keySet().removeIf(k -> k.startsWith(entityType + ":"));
+    }
+    
+    // Start year of the financial year containing the date, e.g. 2025 for 2026-01-15 with an April start
+    private int fiscalYearOf(LocalDate date) {
+        return date.getMonthValue() >= fiscalYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+    
+    private SerialNumberConfigDTO loadConfig(String entityType) {
+        return serialNumberConfigRepository.findByEntityType(entityType)
+            .orElseThrow(() -> new IllegalStateException("Serial number config not found for entity: " + entityType));
+    }
+    
+    private int reserve(String entityType, long branchId, int periodYear) {
+        meterRegistry.counter("serial.number.blocks", "entityType", entityType).increment();
+        return blockTransaction.execute(status ->
+            serialNumberConfigRepository.reserveSequences(entityType, branchId, periodYear, blockSize));
+    }
+    
+    private static SerialNumberBlock block(SerialNumberConfigDTO config, String pattern, String branchCode,
+                                           int periodYear, int firstSequence, int lastSequence) {
+        return new SerialNumberBlock(
+            config.getEntityType(),
+            config.getPrefix(),
+            pattern,
+            config.getSequenceLength() != null ? config.getSequenceLength() : 4,
+            branchCode,
+            periodYear,
+            firstSequence,
+            lastSequence
+        );
+    }
+    
+    private static final class SequenceRange {
+        
+        private final SerialNumberBlock block;
+        private final AtomicInteger next;
+        
+        private SequenceRange(SerialNumberBlock block) {
+            this.block = block;
+            this.next = new AtomicInteger(block.firstSequence());
+        }
+        
+        // -1 once the block is used up; overshooting the counter past the end is harmless
+        private int claim() {
+            int sequence = next.getAndIncrement();
+            return sequence <= block.lastSequence() ? sequence : -1;
+        }
+    }
+}
+
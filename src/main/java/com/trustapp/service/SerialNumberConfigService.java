@@ -1,11 +1,15 @@
 package com.trustapp.service;
 
+import com.trustapp.dto.BranchDTO;
 import com.trustapp.dto.SerialNumberConfigCreateDTO;
 import com.trustapp.dto.SerialNumberConfigDTO;
 import com.trustapp.dto.SerialNumberConfigUpdateDTO;
 import com.trustapp.dto.SerialNumberNextResponseDTO;
 import com.trustapp.exception.DuplicateResourceException;
 import com.trustapp.exception.ResourceNotFoundException;
+import com.trustapp.exception.ValidationException;
+import com.trustapp.model.SerialNumber;
+import com.trustapp.repository.BranchRepository;
 import com.trustapp.repository.SerialNumberConfigRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,9 +20,15 @@ import java.util.List;
 public class SerialNumberConfigService {
     
     private final SerialNumberConfigRepository serialNumberConfigRepository;
+    private final SerialNumberAllocator serialNumberAllocator;
+    private final BranchRepository branchRepository;
     
-    public SerialNumberConfigService(SerialNumberConfigRepository serialNumberConfigRepository) {
+    public SerialNumberConfigService(SerialNumberConfigRepository serialNumberConfigRepository,
+                                     SerialNumberAllocator serialNumberAllocator,
+                                     BranchRepository branchRepository) {
         this.serialNumberConfigRepository = serialNumberConfigRepository;
+        this.serialNumberAllocator = serialNumberAllocator;
+        this.branchRepository = branchRepository;
     }
     
     public List<SerialNumberConfigDTO> getAllConfigurations() {
@@ -51,7 +61,19 @@ public class SerialNumberConfigService {
         configDTO.setLastSequence(createDTO.getLastSequence() != null ? createDTO.getLastSequence() : 0);
         configDTO.setSequenceLength(createDTO.getSequenceLength() != null ? createDTO.getSequenceLength() : 4);
         
+        // A {BRANCH} pattern keeps one sequence per branch, which a single lastSequence cannot continue
+        boolean seed = configDTO.getCurrentYear() != null && configDTO.getLastSequence() > 0;
+        if (seed && configDTO.getFormatPattern().contains("{BRANCH}")) {
+            throw new ValidationException("Last sequence cannot be set for a format pattern with {BRANCH}; each branch starts its own sequence");
+        }
+        
         Long id = serialNumberConfigRepository.save(configDTO);
+        
+        // Continue an existing receipt book: the sequence of the given period starts after lastSequence.
+        // For a {FY} pattern currentYear is the start year of the financial year, e.g. 2025 for 2025-26.
+        if (seed) {
+            serialNumberConfigRepository.seedSequence(configDTO.getEntityType(), configDTO.getCurrentYear(), configDTO.getLastSequence());
+        }
         return getConfigurationById(id);
     }
     
@@ -67,24 +89,33 @@ public class SerialNumberConfigService {
         configDTO.setSequenceLength(updateDTO.getSequenceLength() != null ? updateDTO.getSequenceLength() : existingConfig.getSequenceLength());
         
         serialNumberConfigRepository.update(id, configDTO);
+        
+        // The cached config and numbers already reserved on this node would still carry the old prefix/format;
+        // they are dropped again once the update has committed
+        serialNumberAllocator.discard(existingConfig.getEntityType());
         return getConfigurationById(id);
     }
     
-    @Transactional
-    public SerialNumberNextResponseDTO getNextSerialNumber(String entityType) {
+    // Not @Transactional: a block refill must not wait for a connection while this request holds one
+    public SerialNumberNextResponseDTO getNextSerialNumber(String entityType, Long branchId) {
+        // Needed when the entity's format pattern contains {BRANCH}
+        BranchDTO branch = null;
+        if (branchId != null) {
+            branch = branchRepository.findById(branchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + branchId));
+        }
+        
         try {
-            // Get the next serial number (this will increment the sequence)
-            String serialNumber = serialNumberConfigRepository.getNextSerialNumber(entityType);
-            
-            // Get updated config to get the new sequence value
-            SerialNumberConfigDTO updatedConfig = serialNumberConfigRepository.findByEntityType(entityType)
-                .orElseThrow(() -> new ResourceNotFoundException("Serial number config not found for entity: " + entityType));
+            // Get the next serial number (this consumes it)
+            SerialNumber serialNumber = branch != null
+                ? serialNumberAllocator.next(entityType, branch.getId(), branch.getCode())
+                : serialNumberAllocator.next(entityType);
             
             SerialNumberNextResponseDTO response = new SerialNumberNextResponseDTO();
-            response.setSerialNumber(serialNumber);
+            response.setSerialNumber(serialNumber.value());
             response.setEntityType(entityType);
-            response.setYear(updatedConfig.getCurrentYear());
-            response.setSequence(updatedConfig.getLastSequence());
+            response.setYear(serialNumber.year());
+            response.setSequence(serialNumber.sequence());
             
             return response;
         } catch (IllegalStateException e) {
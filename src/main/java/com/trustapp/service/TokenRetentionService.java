@@ -0,0 +1,136 @@
+package com.trustapp.service;
+
+import com.trustapp.repository.PasswordResetTokenRepository;
+import com.trustapp.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+// Purges dead rows from tokens and password_reset_tokens in small id-based chunks.
+// Each chunk is its own short auto-commit DELETE by primary key, with a pause in between,
+// so the job never holds long locks against logins and refreshes.
+@Slf4j
+@Service
+public class TokenRetentionService {
+    
+    private final TokenRepository tokenRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final MeterRegistry meterRegistry;
+    
+    private final boolean enabled;
+    private final boolean dryRun;
+    private final Duration tokenRetention;
+    private final Duration passwordResetRetention;
+    private final int batchSize;
+    private final long batchPauseMillis;
+    private final int maxBatchesPerRun;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    public TokenRetentionService(TokenRepository tokenRepository,
+                                 PasswordResetTokenRepository passwordResetTokenRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.token-retention.enabled:true}") boolean enabled,
+                                 @Value("${app.token-retention.dry-run:false}") boolean dryRun,
+                                 @Value("${app.token-retention.token-retention-days:7}") long tokenRetentionDays,
+                                 @Value("${app.token-retention.password-reset-retention-days:1}") long passwordResetRetentionDays,
+                                 @Value("${app.token-retention.batch-size:500}") int batchSize,
+                                 @Value("${app.token-retention.batch-pause-ms:200}") long batchPauseMillis,
+                                 @Value("${app.token-retention.max-batches-per-run:2000}") int maxBatchesPerRun) {
+        this.tokenRepository = tokenRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+        this.tokenRetention = Duration.ofDays(tokenRetentionDays);
+        this.passwordResetRetention = Duration.ofDays(passwordResetRetentionDays);
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+    
+    @Scheduled(cron = "${app.token-retention.cron:0 30 3 * * *}")
+    public void purge() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            
+            purgeTable("tokens", now.minus(tokenRetention),
+                tokenRepository::countPurgeableTokens,
+                tokenRepository::findPurgeableTokenIds,
+                tokenRepository::deleteByIds);
+            
+            purgeTable("password_reset_tokens", now.minus(passwordResetRetention),
+                passwordResetTokenRepository::countExpiredBefore,
+                passwordResetTokenRepository::findIdsExpiredBefore,
+                passwordResetTokenRepository::deleteByIds);
+        } catch (Exception e) {
+            log.error("Token retention run failed: {}", e.getMessage(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("token.retention.run", "dryRun", String.valueOf(dryRun)));
+            running.set(false);
+        }
+    }
+    
+    private void purgeTable(String table,
+                            LocalDateTime cutoff,
+                            ToLongFunction<LocalDateTime> counter,
+                            BiFunction<LocalDateTime, Integer, List<Long>> idFinder,
+                            ToIntFunction<List<Long>> deleter) {
+        if (dryRun) {
+            long candidates = counter.applyAsLong(cutoff);
+            meterRegistry.counter("token.retention.candidates", "table", table).increment(candidates);
+            log.info("Token retention dry run: {} rows in {} older than {} would be deleted", candidates, table, cutoff);
+            return;
+        }
+        
+        Counter deletedCounter = meterRegistry.counter("token.retention.deleted", "table", table);
+        Counter batchCounter = meterRegistry.counter("token.retention.batches", "table", table);
+        long deleted = 0;
+        
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = idFinder.apply(cutoff, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            int rows = deleter.applyAsInt(ids);
+            deleted += rows;
+            deletedCounter.increment(rows);
+            batchCounter.increment();
+            
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        
+        log.info("Token retention: deleted {} rows from {} older than {}", deleted, table, cutoff);
+    }
+    
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
+
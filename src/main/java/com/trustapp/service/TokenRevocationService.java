@@ -0,0 +1,109 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.TokenRevocationRequestDTO;
+import com.trustapp.dto.TokenRevocationResultDTO;
+import com.trustapp.dto.UserDTO;
+import com.trustapp.exception.ForbiddenException;
+import com.trustapp.exception.ResourceNotFoundException;
+import com.trustapp.exception.ValidationException;
+import com.trustapp.model.TokenRevocationBatch;
+import com.trustapp.repository.BranchRepository;
+import com.trustapp.repository.TokenRepository;
+import com.trustapp.repository.UserBranchAccessRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class TokenRevocationService {
+    
+    private final TokenRepository tokenRepository;
+    private final UserBranchAccessRepository userBranchAccessRepository;
+    private final BranchRepository branchRepository;
+    private final AuthorizationContextCache authorizationContextCache;
+    private final AuthenticationService authenticationService;
+    private final TokenStatusCache tokenStatusCache;
+    private final int batchSize;
+    
+    public TokenRevocationService(TokenRepository tokenRepository,
+                                  UserBranchAccessRepository userBranchAccessRepository,
+                                  BranchRepository branchRepository,
+                                  AuthorizationContextCache authorizationContextCache,
+                                  AuthenticationService authenticationService,
+                                  TokenStatusCache tokenStatusCache,
+                                  @Value("${app.token-revocation.batch-size:500}") int batchSize) {
+        this.tokenRepository = tokenRepository;
+        this.userBranchAccessRepository = userBranchAccessRepository;
+        this.branchRepository = branchRepository;
+        this.authorizationContextCache = authorizationContextCache;
+        this.authenticationService = authenticationService;
+        this.tokenStatusCache = tokenStatusCache;
+        this.batchSize = batchSize;
+    }
+    
+    // Each batch is a single UPDATE committed on its own, so a large revocation
+    // never holds row locks on the whole token table at once
+    public TokenRevocationResultDTO revoke(TokenRevocationRequestDTO request) {
+        UserDTO currentUser = authenticationService.getCurrentUser();
+        if (!authorizationContextCache.get(currentUser.getId()).isSuperUser()) {
+            throw new ForbiddenException("Access denied. Only super users can revoke tokens.");
+        }
+        
+        int scopes = (request.getUserIds() != null ? 1 : 0)
+            + (request.getBranchId() != null ? 1 : 0)
+            + (request.getIssuedBefore() != null ? 1 : 0);
+        if (scopes != 1) {
+            throw new ValidationException("Exactly one of userIds, branchId or issuedBefore must be provided");
+        }
+        
+        boolean includeRefreshTokens = request.getIncludeRefreshTokens() == null || request.getIncludeRefreshTokens();
+        
+        if (request.getUserIds() != null) {
+            if (request.getUserIds().isEmpty()) {
+                throw new ValidationException("At least one user id must be provided");
+            }
+            return revokeForUsers("USERS", request.getUserIds().stream().distinct().toList(), includeRefreshTokens);
+        }
+        
+        if (request.getBranchId() != null) {
+            branchRepository.findById(request.getBranchId())
+                .orElseThrow(() -> new ResourceNotFoundException("Branch not found with id: " + request.getBranchId()));
+            List<Long> userIds = userBranchAccessRepository.findUserIdsByBranchId(request.getBranchId());
+            return revokeForUsers("BRANCH", userIds, includeRefreshTokens);
+        }
+        
+        return revokeIssuedBefore(request, includeRefreshTokens);
+    }
+    
+    private TokenRevocationResultDTO revokeForUsers(String scope, List<Long> userIds, boolean includeRefreshTokens) {
+        int tokensRevoked = 0;
+        int batches = 0;
+        
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Long> batch = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            tokensRevoked += tokenRepository.revokeTokensByUserIds(batch, includeRefreshTokens);
+            batches++;
+        }
+        
+        tokenStatusCache.evictUsers(userIds);
+        return new TokenRevocationResultDTO(scope, userIds.size(), tokensRevoked, batches);
+    }
+    
+    private TokenRevocationResultDTO revokeIssuedBefore(TokenRevocationRequestDTO request, boolean includeRefreshTokens) {
+        int tokensRevoked = 0;
+        int batches = 0;
+        TokenRevocationBatch batch = null;
+        
+        do {
+            batch = tokenRepository.revokeTokensIssuedBefore(request.getIssuedBefore(), includeRefreshTokens, batch, batchSize);
+            tokensRevoked += batch.revoked();
+            batches++;
+        } while (batch.scanned() == batchSize);
+        
+        // Affected users are not known without another scan, so drop the whole cache
+        tokenStatusCache.evictEverything();
+        return new TokenRevocationResultDTO("ISSUED_BEFORE", null, tokensRevoked, batches);
+    }
+}
+
@@ -0,0 +1,102 @@
+package com.trustapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trustapp.model.Token;
+import com.trustapp.repository.TokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Component
+public class TokenStatusCache {
+
+    private final TokenRepository tokenRepository;
+    private final Cache<String, Token> cache;
+
+    public TokenStatusCache(TokenRepository tokenRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.token-cache.maximum-size:100000}") long maximumSize,
+                            @Value("${app.token-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.tokenRepository = tokenRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=tokenStatus
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenStatus");
+    }
+
+    // Read-through lookup of a bearer token; unknown tokens are not cached
+    public Optional<Token> findJwtToken(String jwt) {
+        return Optional.ofNullable(cache.get(key(jwt), k -> tokenRepository.findJwtToken(jwt).orElse(null)));
+    }
+
+    // Must be called after any write that changes a token's revoked/expired status.
+    // Caffeine blocks this call on an in-flight load of the same key, so a stale row cannot be re-cached.
+    // Inside a transaction every evict runs again after completion, so a request arriving before the
+    // commit cannot keep the old row cached for the TTL.
+    public void evict(String jwt) {
+        if (jwt != null) {
+            String key = key(jwt);
+            evictNowAndAfterCompletion(() -> cache.invalidate(key));
+        }
+    }
+
+    // Rows read back from the database only carry the digest, not the raw JWT
+    public void evictAll(Collection<Token> tokens) {
+        List<String> keys = tokens.stream().map(token -> key(token.getTokenHash())).toList();
+        evictNowAndAfterCompletion(() -> cache.invalidateAll(keys));
+    }
+
+    // Drops every cached token of a user, e.g. after the account is deactivated or deleted,
+    // so the principal built from the cached row does not outlive the change
+    public void evictUser(Long userId) {
+        evictUsers(Set.of(userId));
+    }
+
+    // Single pass over the cache for bulk revocations
+    public void evictUsers(Collection<Long> userIds) {
+        Set<Long> ids = new HashSet<>(userIds);
+        evictNowAndAfterCompletion(() ->
+            cache.asMap().values().removeIf(token -> token.getUser() != null && ids.contains(token.getUser().getId())));
+    }
+
+    public void evictEverything() {
+        cache.invalidateAll();
+    }
+
+    private static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    // Keyed on the same digest the tokens table is indexed by
+    private static String key(String jwt) {
+        return key(TokenRepository.hash(jwt));
+    }
+
+    private static String key(byte[] tokenHash) {
+        return HexFormat.of().formatHex(tokenHash);
+    }
+}
@@ -6,10 +6,8 @@ import com.trustapp.exception.ForbiddenException;
 import com.trustapp.exception.ResourceNotFoundException;
 import com.trustapp.exception.ValidationException;
 import com.trustapp.repository.BranchRepository;
-import com.trustapp.repository.RoleRepository;
 import com.trustapp.repository.UserBranchAccessRepository;
 import com.trustapp.repository.UserRepository;
-import com.trustapp.repository.UserRoleRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,34 +22,26 @@ public class UserBranchAccessService {
     private final UserRepository userRepository;
     private final BranchRepository branchRepository;
     private final AuthenticationService authenticationService;
-    private final RoleRepository roleRepository;
-    private final UserRoleRepository userRoleRepository;
+    private final AuthorizationContextCache authorizationContextCache;
+    private final BranchStatisticsCache branchStatisticsCache;
     
     public UserBranchAccessService(
             UserBranchAccessRepository userBranchAccessRepository,
             UserRepository userRepository,
             BranchRepository branchRepository,
             AuthenticationService authenticationService,
-            RoleRepository roleRepository,
-            UserRoleRepository userRoleRepository) {
+            AuthorizationContextCache authorizationContextCache,
+            BranchStatisticsCache branchStatisticsCache) {
         this.userBranchAccessRepository = userBranchAccessRepository;
         this.userRepository = userRepository;
         this.branchRepository = branchRepository;
         this.authenticationService = authenticationService;
-        this.roleRepository = roleRepository;
-        this.userRoleRepository = userRoleRepository;
+        this.authorizationContextCache = authorizationContextCache;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
     private boolean isSuperUser(Long userId) {
-        // Get SUPER_USER role
-        var superUserRole = roleRepository.findByCode("SUPER_USER");
-        if (superUserRole.isEmpty()) {
-            return false;
-        }
-        
-        Long superUserRoleId = superUserRole.get().getId();
-        List<Long> roleIds = userRoleRepository.findRoleIdsByUserId(userId);
-        return roleIds.contains(superUserRoleId);
+        return authorizationContextCache.get(userId).isSuperUser();
     }
     
     public List<BranchAccessDTO> getUserBranchAccess(Long userId) {
@@ -88,7 +78,13 @@ public class UserBranchAccessService {
         
         // Assign branches (replaces existing)
         // If branchIds is null or empty, this will remove all branch access
+        List<Long> previousBranchIds = userBranchAccessRepository.findBranchIdsByUserId(userId);
         userBranchAccessRepository.assignBranches(userId, branchIds, grantorId);
+        authorizationContextCache.invalidate(userId);
+        branchStatisticsCache.invalidateBranches(previousBranchIds);
+        if (branchIds != null) {
+            branchStatisticsCache.invalidateBranches(branchIds);
+        }
         
         return getUserBranchAccess(userId);
     }
@@ -128,7 +124,10 @@ public class UserBranchAccessService {
         userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
+        List<Long> previousBranchIds = userBranchAccessRepository.findBranchIdsByUserId(userId);
         userBranchAccessRepository.removeAllBranches(userId);
+        authorizationContextCache.invalidate(userId);
+        branchStatisticsCache.invalidateBranches(previousBranchIds);
     }
     
     public BranchAccessCheckDTO checkBranchAccess(Long userId, Long branchId) {
@@ -173,14 +172,8 @@ public class UserBranchAccessService {
         userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
-        // Check if user is super user (has access to all branches)
-        boolean isSuper = isSuperUser(userId);
-        if (isSuper) {
-            return true;
-        }
-        
-        // Check branch access
-        return userBranchAccessRepository.hasAccessToBranch(userId, branchId);
+        // Super users have access to all branches
+        return authorizationContextCache.get(userId).hasAccessToBranch(branchId);
     }
 }
 
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,18 +21,30 @@ public class UserService {
     private final UserBranchAccessRepository userBranchAccessRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenStatusCache tokenStatusCache;
+    private final AuthorizationContextCache authorizationContextCache;
+    private final LoginThrottle loginThrottle;
+    private final BranchStatisticsCache branchStatisticsCache;
     
     public UserService(
             UserRepository userRepository,
             UserRoleRepository userRoleRepository,
             UserBranchAccessRepository userBranchAccessRepository,
             RoleRepository roleRepository,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            TokenStatusCache tokenStatusCache,
+            AuthorizationContextCache authorizationContextCache,
+            LoginThrottle loginThrottle,
+            BranchStatisticsCache branchStatisticsCache) {
         this.userRepository = userRepository;
         this.userRoleRepository = userRoleRepository;
         this.userBranchAccessRepository = userBranchAccessRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenStatusCache = tokenStatusCache;
+        this.authorizationContextCache = authorizationContextCache;
+        this.loginThrottle = loginThrottle;
+        this.branchStatisticsCache = branchStatisticsCache;
     }
     
     public List<UserDTO> getAllUsers(boolean includeInactive) {
@@ -80,6 +93,7 @@ public class UserService {
         // Assign branch access (if not super user)
         if (userCreateDTO.getBranchIds() != null && !userCreateDTO.getBranchIds().isEmpty()) {
             userBranchAccessRepository.assignBranches(userId, userCreateDTO.getBranchIds(), createdBy);
+            branchStatisticsCache.invalidateBranches(userCreateDTO.getBranchIds());
         }
         
         return getUserById(userId);
@@ -105,16 +119,26 @@ public class UserService {
         user.setIsActive(userUpdateDTO.getIsActive() != null ? userUpdateDTO.getIsActive() : existingUser.getIsActive());
         
         userRepository.update(user, updatedBy);
+        tokenStatusCache.evictUser(id);
+        
+        // Branch statistics count the user's access and active status
+        boolean statusChanged = !Objects.equals(user.getIsActive(), existingUser.getIsActive());
+        if (statusChanged || userUpdateDTO.getBranchIds() != null) {
+            branchStatisticsCache.invalidateBranches(userBranchAccessRepository.findBranchIdsByUserId(id));
+        }
         
         // Update roles if provided
         if (userUpdateDTO.getRoleIds() != null) {
             validateRoles(userUpdateDTO.getRoleIds());
             userRoleRepository.assignRoles(id, userUpdateDTO.getRoleIds(), updatedBy);
+            authorizationContextCache.invalidate(id);
         }
         
         // Update branch access if provided
         if (userUpdateDTO.getBranchIds() != null) {
             userBranchAccessRepository.assignBranches(id, userUpdateDTO.getBranchIds(), updatedBy);
+            authorizationContextCache.invalidate(id);
+            branchStatisticsCache.invalidateBranches(userUpdateDTO.getBranchIds());
         }
         
         return getUserById(id);
@@ -150,15 +174,20 @@ public class UserService {
         // Check if user is a system user (cannot be deleted)
         // Implementation depends on your business rules
         
+        branchStatisticsCache.invalidateBranches(userBranchAccessRepository.findBranchIdsByUserId(id));
         userRepository.delete(id);
+        tokenStatusCache.evictUser(id);
+        authorizationContextCache.invalidate(id);
     }
     
     @Transactional
     public void unlockUser(Long id, Long unlockedBy) {
         // Check if user exists
-        getUserById(id);
-        // Reset failed login attempts
-        userRepository.resetFailedLoginAttempts(id);
+        UserDTO user = getUserById(id);
+        // Reset failed login attempts and the lock, including the in-memory login throttle
+        userRepository.unlock(id);
+        loginThrottle.reset(user.getEmail());
+        tokenStatusCache.evictUser(id);
     }
     
     @Transactional
@@ -0,0 +1,11 @@
+-- Replace the raw JWT lookup key with its fixed-width SHA-256 digest
+ALTER TABLE tokens
+ADD COLUMN token_hash BINARY(32) NULL AFTER id;
+
+UPDATE tokens SET token_hash = UNHEX(SHA2(token, 256));
+
+-- Dropping the column also drops its UNIQUE key and the duplicate idx_token
+ALTER TABLE tokens
+MODIFY COLUMN token_hash BINARY(32) NOT NULL,
+ADD CONSTRAINT uk_tokens_token_hash UNIQUE (token_hash),
+DROP COLUMN token;
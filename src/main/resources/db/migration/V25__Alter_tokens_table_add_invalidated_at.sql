@@ -0,0 +1,10 @@
+-- Track when a token was revoked or expired so the retention job can purge it after a grace period
+ALTER TABLE tokens
+ADD COLUMN invalidated_at DATETIME NULL;
+
+UPDATE tokens
+SET invalidated_at = CURRENT_TIMESTAMP
+WHERE revoked = TRUE OR expired = TRUE;
+
+ALTER TABLE tokens
+ADD INDEX idx_invalidated_at (invalidated_at);
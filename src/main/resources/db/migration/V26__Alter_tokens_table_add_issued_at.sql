@@ -0,0 +1,7 @@
+-- Record when a token was issued so sessions can be revoked by issue time.
+-- Rows that existed before this migration get the migration time.
+ALTER TABLE tokens
+ADD COLUMN issued_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+ALTER TABLE tokens
+ADD INDEX idx_issued_at (issued_at);
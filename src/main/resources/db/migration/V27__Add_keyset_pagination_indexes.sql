@@ -0,0 +1,9 @@
+-- Indexes for keyset (cursor) pagination. InnoDB secondary indexes carry the primary key,
+-- so each of these is effectively (sort column, id) and serves ORDER BY col, id directly.
+ALTER TABLE donations
+ADD INDEX idx_amount (amount),
+ADD INDEX idx_branch_donation_date (branch_id, donation_date);
+
+ALTER TABLE inter_branch_transfers
+ADD INDEX idx_amount (amount),
+ADD INDEX idx_created_at (created_at);
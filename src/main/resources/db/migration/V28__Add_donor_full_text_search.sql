@@ -0,0 +1,37 @@
+-- Full-text donor search. Leading-wildcard LIKE on donor_name cannot use idx_donor_name,
+-- so donor searches go through ngram FULLTEXT indexes instead.
+-- The folded columns lower-case the text and collapse common transliteration variants
+-- (Shree/Sri, Lakshmi/Laxmi, Bhaskar/Baskar, Mohammed/Mohamed, ...).
+-- The REPLACE chain must stay identical to DonorSearchText.RULES, which folds the search terms.
+ALTER TABLE donations
+ADD COLUMN donor_name_folded VARCHAR(512) GENERATED ALWAYS AS (
+    REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(LOWER(donor_name)
+        , 'x', 'ks'), 'bh', 'b'), 'dh', 'd'), 'th', 't')
+        , 'kh', 'k'), 'gh', 'g'), 'ph', 'f'), 'sh', 's')
+        , 'w', 'v'), 'q', 'k'), 'aa', 'a'), 'ee', 'i')
+        , 'oo', 'u'), 'kk', 'k'), 'll', 'l'), 'mm', 'm')
+        , 'nn', 'n'), 'pp', 'p'), 'rr', 'r'), 'ss', 's')
+        , 'tt', 't'), 'dd', 'd')
+) STORED,
+ADD COLUMN donor_search_text TEXT GENERATED ALWAYS AS (
+    CONCAT_WS(' ',
+        donor_name_folded,
+        REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(LOWER(donor_address)
+            , 'x', 'ks'), 'bh', 'b'), 'dh', 'd'), 'th', 't')
+            , 'kh', 'k'), 'gh', 'g'), 'ph', 'f'), 'sh', 's')
+            , 'w', 'v'), 'q', 'k'), 'aa', 'a'), 'ee', 'i')
+            , 'oo', 'u'), 'kk', 'k'), 'll', 'l'), 'mm', 'm')
+            , 'nn', 'n'), 'pp', 'p'), 'rr', 'r'), 'ss', 's')
+            , 'tt', 't'), 'dd', 'd'),
+        REPLACE(REPLACE(REPLACE(donor_phone, ' ', ''), '-', ''), '+', ''))
+) STORED;
+
+-- The default InnoDB stopword list contains bigrams such as "an", "at", "in" and "on",
+-- which would remove most bigrams of Indian names from an ngram index. The setting is
+-- captured when the index is created.
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+-- InnoDB builds one FULLTEXT index per ALTER TABLE
+ALTER TABLE donations ADD FULLTEXT INDEX ft_donor_name (donor_name_folded) WITH PARSER ngram;
+
+ALTER TABLE donations ADD FULLTEXT INDEX ft_donor_search (donor_search_text) WITH PARSER ngram;
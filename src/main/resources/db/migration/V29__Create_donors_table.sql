@@ -0,0 +1,19 @@
+-- Directory of distinct donor names behind the donor-name typeahead.
+-- active_donations is maintained by DonationService on donation create, update and soft delete;
+-- names with no active donation stay in the table but are not offered.
+CREATE TABLE donors (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    active_donations INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_donors_name (name),
+    INDEX idx_updated_at (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Same grouping (and collation) as the old GROUP BY donor_name dropdown query
+INSERT INTO donors (name, active_donations)
+SELECT donor_name, COUNT(*)
+FROM donations
+WHERE is_active = TRUE
+GROUP BY donor_name;
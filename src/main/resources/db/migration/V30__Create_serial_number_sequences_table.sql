@@ -0,0 +1,20 @@
+-- Sequence counters per entity type, branch and period, created lazily on first use.
+-- branch_id is 0 for patterns without {BRANCH}; period_year is the financial year's start year
+-- for patterns with {FY} and the calendar year otherwise.
+-- serial_number_config keeps prefix, format_pattern and sequence_length; its current_year and
+-- last_sequence columns are no longer advanced.
+CREATE TABLE serial_number_sequences (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    entity_type VARCHAR(100) NOT NULL,
+    branch_id BIGINT NOT NULL DEFAULT 0,
+    period_year INT NOT NULL,
+    last_sequence INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_serial_number_sequences_scope (entity_type, branch_id, period_year)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Carry over the running counters of the existing (branch-wide, calendar-year) sequences
+INSERT INTO serial_number_sequences (entity_type, branch_id, period_year, last_sequence)
+SELECT entity_type, 0, current_year, COALESCE(last_sequence, 0)
+FROM serial_number_config;
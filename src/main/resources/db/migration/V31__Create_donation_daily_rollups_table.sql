@@ -0,0 +1,28 @@
+-- Per-day totals of active donations, keyed by branch, purpose, payment mode and event.
+-- Maintained by DonationRepository in the same transaction as each donation insert, update and
+-- soft delete; DonationRollupService re-verifies recent days and rebuilds any that drifted.
+-- event_id is 0 for donations without an event, so the key can be the primary key.
+CREATE TABLE donation_daily_rollups (
+    branch_id BIGINT NOT NULL,
+    purpose_id BIGINT NOT NULL,
+    payment_mode_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL DEFAULT 0,
+    donation_date DATE NOT NULL,
+    donation_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    min_amount DECIMAL(15, 2) NOT NULL,
+    max_amount DECIMAL(15, 2) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (branch_id, donation_date, purpose_id, payment_mode_id, event_id),
+    INDEX idx_donation_date (donation_date),
+    INDEX idx_event_id (event_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO donation_daily_rollups
+    (branch_id, purpose_id, payment_mode_id, event_id, donation_date,
+     donation_count, total_amount, min_amount, max_amount)
+SELECT branch_id, purpose_id, payment_mode_id, COALESCE(event_id, 0), donation_date,
+       COUNT(*), SUM(amount), MIN(amount), MAX(amount)
+FROM donations
+WHERE is_active = TRUE
+GROUP BY branch_id, purpose_id, payment_mode_id, COALESCE(event_id, 0), donation_date;
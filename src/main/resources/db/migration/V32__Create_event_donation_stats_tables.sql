@@ -0,0 +1,37 @@
+-- Running totals of active donations per event, behind GET /master/events/dashboard.
+-- Maintained by DonationRepository in the same transaction as each donation insert, update and
+-- soft delete. event_donors holds the per-donor counts that donor_count is derived from, grouped
+-- (and collated) like the donors table.
+CREATE TABLE event_donation_stats (
+    event_id BIGINT PRIMARY KEY,
+    donation_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    donor_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE event_donors (
+    event_id BIGINT NOT NULL,
+    donor_name VARCHAR(255) NOT NULL,
+    donation_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (event_id, donor_name),
+    FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO event_donors (event_id, donor_name, donation_count)
+SELECT event_id, donor_name, COUNT(*)
+FROM donations
+WHERE is_active = TRUE AND event_id IS NOT NULL
+GROUP BY event_id, donor_name;
+
+INSERT INTO event_donation_stats (event_id, donation_count, total_amount, donor_count)
+SELECT d.event_id, COUNT(*), SUM(d.amount),
+       (SELECT COUNT(*) FROM event_donors ed WHERE ed.event_id = d.event_id)
+FROM donations d
+WHERE d.is_active = TRUE AND d.event_id IS NOT NULL
+GROUP BY d.event_id;
+
+-- The dashboard selects a branch's events by start date within a year
+ALTER TABLE events
+ADD INDEX idx_branch_start_date (branch_id, start_date);
@@ -0,0 +1,13 @@
+-- The donor-name dropdown has always returned the donor's earliest active donation id as `id`
+-- (MIN(d.id) of the old GROUP BY donor_name query). Keep that per donor so the directory can serve it.
+ALTER TABLE donors
+ADD COLUMN first_donation_id BIGINT NULL AFTER active_donations;
+
+UPDATE donors dn
+JOIN (
+    SELECT donor_name, MIN(id) AS first_donation_id
+    FROM donations
+    WHERE is_active = TRUE
+    GROUP BY donor_name
+) d ON d.donor_name = dn.name
+SET dn.first_donation_id = d.first_donation_id;
@@ -0,0 +1,4 @@
+-- Temporary lockout written by the login throttle when an account's attempts are exhausted.
+-- Unlike is_locked (set by an administrator) it expires on its own.
+ALTER TABLE users
+ADD COLUMN locked_until TIMESTAMP NULL AFTER is_locked;
@@ -0,0 +1,89 @@
+package com.trustapp.benchmark;
+
+import com.trustapp.model.VerifiedToken;
+import com.trustapp.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// CPU cost of validating one bearer token per request. The original filter rebuilt the key and parser
+// and parsed the token three times (subject, then subject and expiration in isTokenValid); the current
+// filter verifies once with the shared parser. Multiply the difference by peak requests per second for
+// the CPU time saved per second.
+// Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.trustapp.benchmark.JwtParsingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtParsingBenchmark {
+
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+
+    private JwtService jwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        user = User.withUsername("benchmark@trustapp.com")
+            .password("unused")
+            .authorities("ROLE_USER")
+            .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean tripleParse() {
+        String username = parseWithNewParser(token).getSubject();
+        return username.equals(user.getUsername())
+            && parseWithNewParser(token).getSubject().equals(user.getUsername())
+            && !parseWithNewParser(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verifyOnce() {
+        VerifiedToken verified = jwtService.verify(token);
+        return jwtService.isTokenValid(verified, user);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtParsingBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parser()
+            .verifyWith(key)
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+}
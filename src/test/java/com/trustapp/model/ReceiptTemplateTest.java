@@ -0,0 +1,65 @@
+package com.trustapp.model;
+
+import com.trustapp.model.ReceiptTemplate.Line;
+import com.trustapp.model.ReceiptTemplate.Segment;
+import com.trustapp.model.ReceiptTemplate.Style;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReceiptTemplateTest {
+
+    private static final Set<String> FIELDS = Set.of("receiptNumber", "donorName", "panNumber", "amount");
+
+    @Test
+    void splitsLinesIntoLiteralAndFieldSegments() {
+        ReceiptTemplate template = ReceiptTemplate.compile("""
+            # Receipt {receiptNumber}
+
+            Received from {donorName} the sum of Rs. {amount}.
+            """, FIELDS);
+
+        assertThat(template.lines()).containsExactly(
+            new Line(Style.HEADING, List.of(new Segment("Receipt ", null), new Segment(null, "receiptNumber"))),
+            new Line(Style.BLANK, List.of()),
+            new Line(Style.TEXT, List.of(
+                new Segment("Received from ", null), new Segment(null, "donorName"),
+                new Segment(" the sum of Rs. ", null), new Segment(null, "amount"), new Segment(".", null))));
+    }
+
+    @Test
+    void trailingBlankLinesAndWhitespaceAreDropped() {
+        ReceiptTemplate template = ReceiptTemplate.compile("Thank you   \r\n\r\n\r\n", FIELDS);
+
+        assertThat(template.lines()).containsExactly(new Line(Style.TEXT, List.of(new Segment("Thank you", null))));
+    }
+
+    @Test
+    void rendersValuesAndLeavesOutLinesWhoseFieldsAreAllBlank() {
+        ReceiptTemplate template = ReceiptTemplate.compile("Donor: {donorName}\nPAN: {panNumber}\nWith thanks", FIELDS);
+        Map<String, String> values = Map.of("donorName", "Lakshmi Rao", "panNumber", " ");
+
+        assertThat(template.lines().get(0).render(values)).isEqualTo("Donor: Lakshmi Rao");
+        assertThat(template.lines().get(1).render(values)).isNull();
+        assertThat(template.lines().get(2).render(values)).isEqualTo("With thanks");
+    }
+
+    @Test
+    void unknownFieldFailsCompilation() {
+        assertThatThrownBy(() -> ReceiptTemplate.compile("Phone: {donorPhone}", FIELDS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unknown receipt template field: {donorPhone}");
+    }
+
+    @Test
+    void unterminatedPlaceholderFailsCompilation() {
+        assertThatThrownBy(() -> ReceiptTemplate.compile("Donor: {donorName", FIELDS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unterminated placeholder in receipt template: Donor: {donorName");
+    }
+}
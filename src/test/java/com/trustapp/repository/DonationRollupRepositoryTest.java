@@ -0,0 +1,96 @@
+package com.trustapp.repository;
+
+import com.trustapp.model.DonationRollupEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// remove's statements are MySQL-specific, so these check which of them run and with what parameters
+class DonationRollupRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 4, 1);
+    private static final DonationRollupEntry ENTRY = new DonationRollupEntry(
+        3L, 5L, 2L, null, DAY, new BigDecimal("500.00"));
+
+    private JdbcClient jdbcClient;
+    private JdbcClient.StatementSpec statement;
+    private DonationRollupRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient = mock(JdbcClient.class);
+        statement = mock(JdbcClient.StatementSpec.class);
+        when(jdbcClient.sql(anyString())).thenReturn(statement);
+        when(statement.params(anyList())).thenReturn(statement);
+        repository = new DonationRollupRepository(jdbcClient);
+    }
+
+    private List<String> statements() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcClient, atLeastOnce()).sql(sql.capture());
+        return sql.getAllValues();
+    }
+
+    private List<List<?>> params() {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArgumentCaptor<List<?>> params = (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+        verify(statement, atLeastOnce()).params(params.capture());
+        return params.getAllValues();
+    }
+
+    @Test
+    void missingBucketIsLeftToVerification() {
+        when(statement.update()).thenReturn(0);
+
+        repository.remove(ENTRY);
+
+        assertThat(statements()).hasSize(1);
+        assertThat(params().get(0)).containsExactly(new BigDecimal("500.00"), 3L, DAY, 5L, 2L, 0L);
+    }
+
+    @Test
+    void lastDonationOfABucketDeletesTheRowWithoutRecomputing() {
+        when(statement.update()).thenReturn(1, 1);
+
+        repository.remove(ENTRY);
+
+        List<String> statements = statements();
+        assertThat(statements).hasSize(2);
+        assertThat(statements.get(1)).startsWith("DELETE FROM donation_daily_rollups WHERE donation_count = 0");
+    }
+
+    @Test
+    void remainingBucketRecomputesMinAndMaxOnlyWhenTheRemovedAmountWasABound() {
+        when(statement.update()).thenReturn(1, 0, 1);
+
+        repository.remove(ENTRY);
+
+        List<String> statements = statements();
+        assertThat(statements).hasSize(3);
+        assertThat(statements.get(2))
+            .contains("SELECT MIN(d.amount) FROM donations d", "SELECT MAX(d.amount) FROM donations d")
+            .contains("AND (min_amount = ? OR max_amount = ?)");
+
+        // Key for each donations subquery, the key of the rollup row, then the removed amount for both bounds
+        List<Object> key = List.of(3L, DAY, 5L, 2L, 0L);
+        List<?> bounds = params().get(2);
+        assertThat(bounds).hasSize(17);
+        assertThat(bounds.subList(0, 5)).isEqualTo(key);
+        assertThat(bounds.subList(5, 10)).isEqualTo(key);
+        assertThat(bounds.subList(10, 15)).isEqualTo(key);
+        assertThat(bounds.subList(15, 17)).containsExactly(new BigDecimal("500.00"), new BigDecimal("500.00"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.trustapp.repository;
+
+import com.trustapp.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        KeysetCursor cursor = new KeysetCursor("donationdate", "DESC", "2026-03-14", 42L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(encoded, "donationdate", "DESC")).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorFromADifferentSortIsRejected() {
+        String encoded = new KeysetCursor("amount", "ASC", "100.00", 7L).encode();
+
+        assertThatThrownBy(() -> KeysetCursor.decode(encoded, "amount", "DESC"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage("Cursor does not match the requested sortBy/sortDir");
+        assertThatThrownBy(() -> KeysetCursor.decode(encoded, "donationdate", "ASC"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage("Cursor does not match the requested sortBy/sortDir");
+    }
+
+    @Test
+    void tamperedCursorsAreRejectedAsInvalid() {
+        assertInvalid("not base64 at all!");
+        assertInvalid(encode("amount|ASC|100.00"));
+        assertInvalid(encode("amount|ASC|100.00|7|extra"));
+        assertInvalid(encode("amount|ASC|100.00|seven"));
+    }
+
+    @Test
+    void conditionSeeksPastTheCursorRowInSortDirection() {
+        KeysetCursor descending = new KeysetCursor("amount", "DESC", "100.00", 7L);
+        KeysetCursor ascending = new KeysetCursor("amount", "ASC", "100.00", 7L);
+
+        assertThat(descending.condition("d.amount", "d.id"))
+            .isEqualTo("(d.amount < ? OR (d.amount = ? AND d.id < ?))");
+        assertThat(ascending.condition("d.amount", "d.id"))
+            .isEqualTo("(d.amount > ? OR (d.amount = ? AND d.id > ?))");
+        assertThat(descending.params("typed")).containsExactly("typed", "typed", 7L);
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "amount", "ASC"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package com.trustapp.service;
+
+import com.trustapp.service.DonationExportService.CsvExporter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonationExportServiceTest {
+
+    @Test
+    void plainTextIsWrittenAsIs() {
+        assertThat(CsvExporter.quote("Ramesh Kumar")).isEqualTo("Ramesh Kumar");
+        assertThat(CsvExporter.quote("")).isEmpty();
+    }
+
+    @Test
+    void separatorsQuotesAndLineBreaksAreQuotedPerRfc4180() {
+        assertThat(CsvExporter.quote("12, MG Road")).isEqualTo("\"12, MG Road\"");
+        assertThat(CsvExporter.quote("the \"annual\" fund")).isEqualTo("\"the \"\"annual\"\" fund\"");
+        assertThat(CsvExporter.quote("line one\nline two")).isEqualTo("\"line one\nline two\"");
+        assertThat(CsvExporter.quote("line one\r\nline two")).isEqualTo("\"line one\r\nline two\"");
+    }
+
+    @Test
+    void leadingFormulaCharactersAreNeutralised() {
+        assertThat(CsvExporter.quote("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+        assertThat(CsvExporter.quote("+91 98450 00000")).isEqualTo("'+91 98450 00000");
+        assertThat(CsvExporter.quote("-2+3")).isEqualTo("'-2+3");
+        assertThat(CsvExporter.quote("@SUM(A1:A2)")).isEqualTo("'@SUM(A1:A2)");
+        assertThat(CsvExporter.quote("\t=1+1")).isEqualTo("'\t=1+1");
+        assertThat(CsvExporter.quote("\r=1+1")).isEqualTo("\"'\r=1+1\"");
+    }
+
+    @Test
+    void formulaCharactersAfterTheFirstAreLeftAlone() {
+        assertThat(CsvExporter.quote("a=b")).isEqualTo("a=b");
+        assertThat(CsvExporter.quote("info@example.org")).isEqualTo("info@example.org");
+    }
+}
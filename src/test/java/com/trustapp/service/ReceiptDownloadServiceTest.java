@@ -0,0 +1,155 @@
+package com.trustapp.service;
+
+import com.trustapp.model.ReceiptFile;
+import com.trustapp.repository.DonationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReceiptDownloadServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.7 receipt body for range tests".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path storageDir;
+
+    private DonationRepository donationRepository;
+    private ReceiptDownloadService service;
+    private String etag;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReceiptStorage storage = new ReceiptStorage(storageDir.toString());
+        String path = storage.store(PDF);
+        etag = ReceiptStorage.etag(path);
+
+        donationRepository = mock(DonationRepository.class);
+        when(donationRepository.findReceiptFile(1L)).thenReturn(Optional.of(new ReceiptFile(1L, "DON/2026/001", path)));
+        service = new ReceiptDownloadService(donationRepository, storage, new SimpleMeterRegistry());
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.download(1L, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/donations/1/receipt/download");
+    }
+
+    @Test
+    void servesTheWholeFileWithAStrongETag() throws Exception {
+        MockHttpServletResponse response = download(get());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag).doesNotStartWith("W/");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("receipt-DON_2026_001.pdf");
+        assertThat(response.getContentAsByteArray()).isEqualTo(PDF);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModifiedUnderWeakComparison() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag);
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void singleRangeIsServedAsPartialContent() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=4-9");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 4-9/" + PDF.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(PDF, 4, 10));
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + PDF.length + "-");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + PDF.length);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void multipleRangesGetTheWholeFile() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,5-6");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(PDF);
+    }
+
+    @Test
+    void ifRangeHonoursTheRangeOnlyWhileTheETagStillMatches() throws Exception {
+        MockHttpServletRequest current = get();
+        current.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        current.addHeader(HttpHeaders.IF_RANGE, etag);
+        assertThat(download(current).getStatus()).isEqualTo(206);
+
+        MockHttpServletRequest stale = get();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse response = download(stale);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(PDF);
+    }
+
+    @Test
+    void legacyFileGetsAWeakETagThatIfRangeNeverMatches() throws Exception {
+        Files.write(storageDir.resolve("legacy.pdf"), PDF);
+        when(donationRepository.findReceiptFile(1L)).thenReturn(Optional.of(new ReceiptFile(1L, "DON/2026/001", "legacy.pdf")));
+
+        MockHttpServletResponse first = download(get());
+        String weakETag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(weakETag).startsWith("W/\"" + PDF.length + "-");
+
+        // Strong comparison is required for If-Range, so a weak validator always gets the whole file
+        MockHttpServletRequest ranged = get();
+        ranged.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        ranged.addHeader(HttpHeaders.IF_RANGE, weakETag);
+        assertThat(download(ranged).getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest revalidate = get();
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, weakETag);
+        assertThat(download(revalidate).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void headSendsHeadersWithoutTheBody() throws Exception {
+        MockHttpServletResponse response = download(new MockHttpServletRequest("HEAD", "/donations/1/receipt/download"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(PDF.length);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+}
@@ -0,0 +1,241 @@
+package com.trustapp.service;
+
+import com.trustapp.dto.SerialNumberConfigDTO;
+import com.trustapp.model.SerialNumber;
+import com.trustapp.repository.SerialNumberConfigRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SerialNumberAllocatorTest {
+
+    private static final int BLOCK_SIZE = 20;
+
+    private SerialNumberConfigRepository repository;
+    private final Map<String, AtomicInteger> sequences = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SerialNumberConfigRepository.class);
+
+        SerialNumberConfigDTO config = new SerialNumberConfigDTO();
+        config.setEntityType("DONATION");
+        config.setPrefix("DON");
+        config.setFormatPattern("{PREFIX}-{BRANCH}-{YEAR}-{SEQUENCE}");
+        config.setSequenceLength(6);
+        when(repository.findByEntityType("DONATION")).thenReturn(Optional.of(config));
+
+        // Stands in for the serial_number_sequences upsert: one counter per (entity type, branch, period)
+        when(repository.reserveSequences(anyString(), anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            reservations.incrementAndGet();
+            String scope = invocation.getArgument(0) + ":" + invocation.getArgument(1) + ":" + invocation.getArgument(2);
+            return sequences.computeIfAbsent(scope, s -> new AtomicInteger())
+                .addAndGet(invocation.<Integer>getArgument(3));
+        });
+    }
+
+    private SerialNumberAllocator allocator() {
+        return allocator(mock(PlatformTransactionManager.class), BLOCK_SIZE);
+    }
+
+    private SerialNumberAllocator allocator(PlatformTransactionManager transactionManager, int blockSize) {
+        return new SerialNumberAllocator(repository, transactionManager, new SimpleMeterRegistry(),
+            blockSize, "", 4, 300);
+    }
+
+    @Test
+    void concurrentCallersGetUniqueGapFreeNumbersAcrossBlockBoundaries() throws Exception {
+        SerialNumberAllocator allocator = allocator();
+        int threads = 16;
+        int perThread = 125;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<SerialNumber>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<SerialNumber> numbers = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(allocator.next("DONATION", 7L, "BLR"));
+                }
+                return numbers;
+            }));
+        }
+        start.countDown();
+
+        List<SerialNumber> all = new ArrayList<>();
+        for (Future<List<SerialNumber>> future : futures) {
+            all.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        int total = threads * perThread;
+        Set<Integer> sequenceSet = all.stream().map(SerialNumber::sequence).collect(Collectors.toSet());
+        Set<String> values = all.stream().map(SerialNumber::value).collect(Collectors.toSet());
+        assertThat(sequenceSet).hasSize(total);
+        assertThat(values).hasSize(total);
+
+        // Every block was used up, so the numbers form one contiguous run starting at 1
+        assertThat(sequenceSet).allMatch(sequence -> sequence >= 1 && sequence <= total);
+
+        // The database is visited once per block, not once per number
+        assertThat(reservations.get()).isEqualTo((total + BLOCK_SIZE - 1) / BLOCK_SIZE);
+
+        int year = LocalDate.now().getYear();
+        assertThat(values).contains(String.format("DON-BLR-%d-%06d", year, 1), String.format("DON-BLR-%d-%06d", year, total));
+    }
+
+    @Test
+    void refillOfOneBranchDoesNotBlockAnotherBranch() throws Exception {
+        // The first reservation for branch 1 only completes once branch 2 has reserved as well,
+        // which can only happen if branch 2 is not waiting behind branch 1's refill
+        CountDownLatch branchTwoReserved = new CountDownLatch(1);
+        when(repository.reserveSequences(eq("DONATION"), eq(1L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            assertThat(branchTwoReserved.await(10, TimeUnit.SECONDS)).isTrue();
+            return BLOCK_SIZE;
+        });
+        when(repository.reserveSequences(eq("DONATION"), eq(2L), anyInt(), anyInt())).thenAnswer(invocation -> {
+            branchTwoReserved.countDown();
+            return BLOCK_SIZE;
+        });
+
+        SerialNumberAllocator allocator = allocator();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<SerialNumber> branchOne = executor.submit(() -> allocator.next("DONATION", 1L, "BLR"));
+        Future<SerialNumber> branchTwo = executor.submit(() -> allocator.next("DONATION", 2L, "MYS"));
+
+        assertThat(branchTwo.get(10, TimeUnit.SECONDS).sequence()).isEqualTo(1);
+        assertThat(branchOne.get(10, TimeUnit.SECONDS).sequence()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void createsHoldingTheirTransactionsOpenDoNotSerialise() throws Exception {
+        // Like InnoDB, the reservation upsert locks the scope's sequence row until its transaction ends
+        RowLockingTransactionManager transactionManager = new RowLockingTransactionManager();
+        ReentrantLock sequenceRow = new ReentrantLock();
+        when(repository.reserveSequences(anyString(), anyLong(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            sequenceRow.lock();
+            transactionManager.onCompletion(sequenceRow::unlock);
+            return sequences.computeIfAbsent("scope", s -> new AtomicInteger())
+                .addAndGet(invocation.<Integer>getArgument(3));
+        });
+
+        // Blocks of 3 force refills while other creates are still inside their transactions
+        SerialNumberAllocator allocator = allocator(transactionManager, 3);
+        int creates = 8;
+        CountDownLatch allInside = new CountDownLatch(creates);
+
+        // Every create waits inside its business transaction until all of them are inside theirs. If a
+        // reservation ran in a business transaction, the row lock would keep the other refills out
+        // and the latch would never open.
+        ExecutorService executor = Executors.newFixedThreadPool(creates);
+        List<Future<SerialNumber>> futures = new ArrayList<>();
+        for (int i = 0; i < creates; i++) {
+            futures.add(executor.submit(() -> allocator.inTransaction("DONATION", 7L, "BLR", serialNumber -> {
+                allInside.countDown();
+                try {
+                    assertThat(allInside.await(10, TimeUnit.SECONDS)).isTrue();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return serialNumber;
+            })));
+        }
+
+        Set<Integer> sequenceSet = new HashSet<>();
+        for (Future<SerialNumber> future : futures) {
+            sequenceSet.add(future.get(20, TimeUnit.SECONDS).sequence());
+        }
+        executor.shutdown();
+
+        assertThat(sequenceSet).hasSize(creates);
+        assertThat(sequenceRow.isLocked()).isFalse();
+    }
+
+    @Test
+    void numbersWithinABlockAreClaimedWithoutVisitingTheDatabase() {
+        SerialNumberAllocator allocator = allocator();
+
+        for (int i = 1; i <= BLOCK_SIZE; i++) {
+            assertThat(allocator.next("DONATION", 7L, "BLR").sequence()).isEqualTo(i);
+        }
+        assertThat(reservations.get()).isEqualTo(1);
+
+        assertThat(allocator.next("DONATION", 7L, "BLR").sequence()).isEqualTo(BLOCK_SIZE + 1);
+        assertThat(reservations.get()).isEqualTo(2);
+    }
+
+    // Transactions are per thread: a new one opens a frame, REQUIRED joins the current one, and a frame's
+    // completion callbacks run when it commits or rolls back
+    private static final class RowLockingTransactionManager implements PlatformTransactionManager {
+
+        private final ThreadLocal<Deque<List<Runnable>>> transactions = ThreadLocal.withInitial(ArrayDeque::new);
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            Deque<List<Runnable>> open = transactions.get();
+            boolean joins = !open.isEmpty()
+                && definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED;
+            if (!joins) {
+                open.push(new ArrayList<>());
+            }
+            return new SimpleTransactionStatus(!joins);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            complete(status);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            complete(status);
+        }
+
+        void onCompletion(Runnable callback) {
+            List<Runnable> current = transactions.get().peek();
+            assertThat(current).as("reservation outside a transaction").isNotNull();
+            current.add(callback);
+        }
+
+        private void complete(TransactionStatus status) {
+            if (status.isNewTransaction()) {
+                transactions.get().pop().forEach(Runnable::run);
+            }
+        }
+    }
+}